@@ -16,4 +16,6 @@ FOR /f "tokens=*" %%f in ('dir /B /S "*.java"') DO (
 if not exist "out\" (
     md out
 )
-javac -d out -cp lib/jsfml.jar @sources.txt
\ No newline at end of file
+javac -d out -cp lib/jsfml.jar @sources.txt
+
+java -cp out fullthrottle.gfx.AtlasPacker
@@ -6,4 +6,7 @@ if [[ ! $(ldconfig -p | grep libopenal) ]]; then
 fi
 
 find -name "*.java" > sources.txt
-javac -d out -cp lib/jsfml.jar @sources.txt
\ No newline at end of file
+javac -d out -cp lib/jsfml.jar @sources.txt
+
+#Pack the textures into atlases
+java -cp out fullthrottle.gfx.AtlasPacker
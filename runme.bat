@@ -1,3 +1,3 @@
 @echo off
 
-java -cp out;lib/jsfml.jar fullthrottle.FullThrottle
\ No newline at end of file
+java -cp out;lib/jsfml.jar fullthrottle.FullThrottle %*
\ No newline at end of file
@@ -1,4 +1,4 @@
 #!/bin/bash
 #Run the fullthrottle.FullThrottle class
 
-java -cp out:lib/jsfml.jar fullthrottle.FullThrottle
\ No newline at end of file
+java -cp out:lib/jsfml.jar fullthrottle.FullThrottle "$@"
\ No newline at end of file
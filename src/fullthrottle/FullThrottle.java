@@ -3,6 +3,7 @@ package fullthrottle;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
 
 import org.jsfml.graphics.BlendMode;
 import org.jsfml.graphics.Color;
@@ -10,10 +11,11 @@ import org.jsfml.graphics.ConstView;
 import org.jsfml.graphics.FloatRect;
 import org.jsfml.graphics.Image;
 import org.jsfml.graphics.RenderStates;
+import org.jsfml.graphics.RenderTexture;
 import org.jsfml.graphics.RenderWindow;
 import org.jsfml.graphics.Sprite;
 import org.jsfml.graphics.Text;
-import org.jsfml.graphics.Texture;
+import org.jsfml.graphics.TextureCreationException;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 import org.jsfml.window.Keyboard.Key;
@@ -21,16 +23,27 @@ import org.jsfml.window.VideoMode;
 import org.jsfml.window.WindowStyle;
 import org.jsfml.window.event.Event;
 
-import fullthrottle.Road.RoadSection;
+import fullthrottle.debug.FrameTimeOverlay;
+import fullthrottle.debug.FrameTimeRecorder;
+import fullthrottle.debug.Profiler;
+import fullthrottle.debug.ProfilerOverlay;
+import fullthrottle.debug.RenderStatsOverlay;
+import fullthrottle.debug.Trace;
 import fullthrottle.gfx.Animation;
 import fullthrottle.gfx.Animator;
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.DrawList;
 import fullthrottle.gfx.ParallaxBackground;
 import fullthrottle.gfx.ParallaxBackground.Direction;
+import fullthrottle.gfx.QualityGovernor;
 import fullthrottle.sfx.FTMusic;
 import fullthrottle.gfx.Renderer;
 import fullthrottle.gfx.SpriteSequence;
 import fullthrottle.gfx.Spritesheet;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.gfx.TextureRegion;
+import fullthrottle.replay.ReplayCommand;
+import fullthrottle.replay.ReplayPlayer;
+import fullthrottle.replay.ReplayRecorder;
 import fullthrottle.ui.Button;
 import fullthrottle.ui.Button.ActionType;
 import fullthrottle.ui.ButtonManager;
@@ -38,7 +51,10 @@ import fullthrottle.ui.ProgressBar;
 import fullthrottle.ui.ReelInput;
 import fullthrottle.ui.UI;
 import fullthrottle.ui.UISprite;
+import fullthrottle.util.EventQueue;
+import fullthrottle.util.FramePacer;
 import fullthrottle.util.Input;
+import fullthrottle.util.StepQueue;
 import fullthrottle.util.TimeManager;
 import fullthrottle.util.Updatable;
 
@@ -46,16 +62,127 @@ public class FullThrottle {
     public static final int WINDOW_WIDTH = 1280;
     public static final int WINDOW_HEIGHT = 720;
 
+    /**
+     * Used in place of the window's view when there is no window
+     */
+    private static final FloatRect VIRTUAL_VIEW_RECT = new FloatRect(
+        0, 0, WINDOW_WIDTH, WINDOW_HEIGHT
+    );
+
+    /**
+     * Cached render layer just behind the road for the title and
+     * game over text, which fade in and out across scene changes
+     */
+    private static final int STATIC_BACK_LAYER = 2;
+
+    /**
+     * Render layers each used by only one scene, so a scene can
+     * turn its layers off as a whole
+     * The front layers are cached as they rarely change
+     */
+    private static final int GAMEPLAY_LAYER = -1;
+    private static final int MENU_BUTTON_LAYER = -50;
+    private static final int MENU_FRONT_LAYER = -90;
+    private static final int GAME_OVER_FRONT_LAYER = -91;
+    private static final int GAME_OVER_BUTTON_LAYER = -100;
+
+    /**
+     * Front-most layer drawn at low resolution with --low-res,
+     * layers in front of it (UI and text) are drawn at full size
+     */
+    private static final int LOW_RES_FRONT_LAYER = 0;
+    private static final int DEFAULT_LOW_RES_DIVISOR = 4;
+
     private static RenderWindow window;
 
+    /**
+     * Whether the simulation runs on its own thread, with the
+     * main thread only handling events and drawing
+     */
+    private static boolean threaded = false;
+
+    /**
+     * The window size is divided by this to get the size the game
+     * world is drawn at, 0 to draw at full size
+     */
+    private static int lowResDivisor = 0;
+
+    private Thread simulationThread;
+    private volatile boolean simulating;
+    private final EventQueue pendingEvents = new EventQueue();
+    /**
+     * Events being handled this frame, tagged with the
+     * simulation step they happened before
+     */
+    private final StepQueue<Event> stepEvents = new StepQueue<>();
+    private final StepQueue.Handler<Event> eventHandler = this::dispatchEvent;
+    /**
+     * Polls the window while the frame pacer waits
+     */
+    private final Runnable eventPump = this::pumpEvents;
+    /**
+     * Simulation step the events being handled happened before
+     */
+    private int dispatchStep;
+    /**
+     * Capture time of the oldest input handled this frame, 0 if none
+     */
+    private volatile long frameInputTime;
+
+    private static String recordPath = null;
+    private static String replayPath = null;
+    private ReplayRecorder recorder;
+    private ReplayPlayer replay;
+    /**
+     * Replayed events go through the same path as live ones, the
+     * commands are ignored as the replayed clicks trigger them again
+     */
+    private final ReplayPlayer.Handler replayHandler = new ReplayPlayer.Handler() {
+        @Override
+        public void event(Event e, int step) {
+            stepEvents.add(e, 0, step);
+        }
+
+        @Override
+        public void command(ReplayCommand c, int step) {
+
+        }
+    };
+
     private ButtonManager buttonManager;
 
     private ArrayList<Updatable> updatables;
-
-    private Text fpsCount;
-    private boolean showFps = false;
-    private int score = 0;
-    private double score_mult = 1;
+    /**
+     * Profiler scope for each Updatable, in the same order
+     */
+    private ArrayList<Integer> updatableScopes;
+
+    private static final int EVENTS_SCOPE = Profiler.register("Events");
+    private static final int INPUT_SCOPE = Profiler.register("Input");
+    private static final int BUTTONS_SCOPE = Profiler.register("Button Dispatch");
+    private static final int FIXED_UPDATE_SCOPE = Profiler.register("Fixed Update");
+    private static final int UPDATE_SCOPE = Profiler.register("Update");
+    private static final int RENDER_SCOPE = Profiler.register("Render");
+    private static final int OVERLAY_SCOPE = Profiler.register("Debug Overlay");
+    private static final int DISPLAY_SCOPE = Profiler.register("Display");
+    private static final int RECORD_SCOPE = Profiler.register("Record Frame");
+
+    private FrameTimeRecorder frameTimes;
+    private FrameTimeOverlay frameTimeOverlay;
+    private ProfilerOverlay profilerOverlay;
+    private RenderStatsOverlay renderStatsOverlay;
+    private volatile boolean showFps = false;
+    /**
+     * Scene is drawn here first when the quality
+     * governor lowers the render resolution
+     */
+    private RenderTexture scaledTarget;
+    private Sprite scaledSprite;
+    /**
+     * Game world is drawn here first when running with --low-res
+     */
+    private RenderTexture lowResTarget;
+    private Sprite lowResSprite;
     private static GameManager gameManager;
 
     // Loading screen
@@ -84,10 +211,13 @@ public class FullThrottle {
 
     public Animator mmbAnimator, ssbAnimator, pagAnimator;
 
+    // Scenes
+    public Scene menuScene, gameplayScene, gameOverScene;
+
     public FullThrottle() {
         init();
 
-        Texture titleT = new FTTexture("./res/Title.png");
+        TextureRegion titleT = TextureAtlas.getRegion("./res/Title.png");
         title = new UISprite(titleT);
         float titleW = title.getGlobalBounds().width;
         float titleH = title.getGlobalBounds().height;
@@ -96,7 +226,7 @@ public class FullThrottle {
 
         Vector2f loadingBarSize = new Vector2f(WINDOW_WIDTH + 100, 32);
         Vector2f loadingBarPos = new Vector2f(0, WINDOW_HEIGHT * (4 / 5f));
-        loadingBar = new ProgressBar(loadingBarPos, loadingBarSize, 100, new FTTexture("./res/LoadingBar.png"),
+        loadingBar = new ProgressBar(loadingBarPos, loadingBarSize, 100, TextureAtlas.getRegion("./res/LoadingBar.png"),
                 new Vector2i(16, 16), 10, new float[] { 100 });
         loadingBar.lerpUpdate(false);
 
@@ -138,54 +268,420 @@ public class FullThrottle {
 
         start();
         music.play_music("./res/Music/Theme_3.ogg");
-        fpsCount = new Text("60 FPS", UI.DEFAULT_UI_FONT);
-        fpsCount.setColor(Color.RED);
-        fpsCount.setPosition(1150, 10);
-        double avgFps = 60;
-        window.setFramerateLimit(0);
+        frameTimes = new FrameTimeRecorder();
+        frameTimeOverlay = new FrameTimeOverlay(frameTimes, new Vector2f(1020, 10));
+        profilerOverlay = new ProfilerOverlay(new Vector2f(10, 420));
+        renderStatsOverlay = new RenderStatsOverlay(new Vector2f(1020, 330));
+        FramePacer.apply(window);
 
-        while (window.isOpen()) {
-            //cap fps to 60
-            if (TimeManager.elapsedTime() < 1/61f) continue;
-            TimeManager.update();
+        startReplay();
+        if (threaded)
+            startSimulation();
+        long lastFrame = System.nanoTime();
 
-            avgFps = 0.9 * avgFps + (1 - 0.9) * (1 / TimeManager.deltaTime());
+        long lastSnapshot = 0;
 
-            fpsCount.setString((int) avgFps + " FPS");
+        while (window.isOpen()) {
+            FramePacer.waitForNextFrame(eventPump);
+            long now = System.nanoTime();
+            frameTimes.record(now - lastFrame);
+            lastFrame = now;
+            QualityGovernor.update(FramePacer.getWorkTime());
+            Profiler.beginFrame();
+            long frameStart = Trace.now();
 
             // Handle events
-            Input.clearFlags();
-            for (Event event : window.pollEvents()) {
-                if (event.type == Event.Type.CLOSED) {
-                    // The user pressed the close button
-                    window.close();
-                }
-
-                if (event.asMouseEvent() != null) {
-                    buttonManager.mouseEvent(event);
-
-                    if (event.asMouseButtonEvent() != null) {
-                        Input.mouseEvent(event);
-                    }
-                }
-
-                if (event.asKeyEvent() != null) {
-                    Input.keyEvent(event);
-                }
+            Profiler.begin(EVENTS_SCOPE);
+            pumpEvents();
+            Profiler.end();
+
+            //the simulation thread does this itself when threaded
+            if (!threaded) {
+                simulateFrame();
+                recordFrame();
             }
 
-            update();
+            long inputTime = 0;
+            RenderSnapshot s = RenderSnapshot.latest();
+            if (s.getSequence() != lastSnapshot) {
+                lastSnapshot = s.getSequence();
+                inputTime = s.getInputTime();
+            }
 
-            window.clear(Color.BLACK);
+            Profiler.begin(RENDER_SCOPE);
+            render(s.drawList);
+            Profiler.end();
+
+            if (showFps) {
+                Profiler.begin(OVERLAY_SCOPE);
+                RenderStates rs = new RenderStates(BlendMode.ALPHA);
+                frameTimeOverlay.draw(window, rs);
+                profilerOverlay.draw(window, rs);
+                renderStatsOverlay.draw(window, rs);
+                Profiler.end();
+            }
 
-            Renderer.render(window);
+            Profiler.begin(DISPLAY_SCOPE);
+            FramePacer.display(window);
+            Profiler.end();
+            if (inputTime != 0)
+                frameTimes.recordInputLatency(System.nanoTime() - inputTime);
+            Trace.complete("Frame", "frame", frameStart);
+            Profiler.endFrame();
+        }
 
-            if (Input.getKeyDown(Key.F3))
-                showFps = !showFps;
-            if (showFps)
-                fpsCount.draw(window, new RenderStates(BlendMode.ALPHA));
+        if (threaded)
+            stopSimulation();
+        stopRecording();
+    }
 
-            window.display();
+    /**
+     * Draws a recorded frame to the window at the resolution
+     * chosen by --low-res or the quality governor
+     * @param frame layers recorded by recordFrame()
+     */
+    private void render(DrawList frame) {
+        window.clear(Color.BLACK);
+        float renderScale = QualityGovernor.getRenderScale();
+        if (lowResDivisor > 0)
+            renderLowRes(frame);
+        else if (renderScale < 1)
+            renderScaled(frame, renderScale);
+        else
+            Renderer.replay(frame, window);
+    }
+
+    /**
+     * Draws the scene to a smaller texture and scales it up to fill
+     * the window, used by the quality governor to cut fill cost
+     * @param frame layers recorded by recordFrame()
+     * @param scale size of the texture relative to the window
+     */
+    private void renderScaled(DrawList frame, float scale) {
+        int width = (int)(WINDOW_WIDTH * scale);
+        int height = (int)(WINDOW_HEIGHT * scale);
+        if (scaledTarget == null || scaledTarget.getSize().x != width) {
+            try {
+                scaledTarget = new RenderTexture();
+                scaledTarget.create(width, height);
+            } catch (TextureCreationException e) {
+                e.printStackTrace();
+                scaledTarget = null;
+                Renderer.replay(frame, window);
+                return;
+            }
+            scaledTarget.setSmooth(true);
+            scaledSprite = new Sprite(scaledTarget.getTexture());
+            scaledSprite.setScale(1 / scale, 1 / scale);
+        }
+
+        //same view as the window so everything lands in the same place
+        scaledTarget.setView(window.getView());
+        scaledTarget.clear(Color.BLACK);
+        Renderer.replay(frame, scaledTarget);
+        scaledTarget.display();
+        window.draw(scaledSprite);
+    }
+
+    /**
+     * Draws the game world to a texture a whole fraction of the
+     * window's size, then scales it up with no smoothing so each
+     * pixel of the art covers the same number of window pixels
+     * UI layers are drawn over it at full size so text stays readable
+     * @param frame layers recorded by recordFrame()
+     */
+    private void renderLowRes(DrawList frame) {
+        if (lowResTarget == null) {
+            try {
+                lowResTarget = new RenderTexture();
+                lowResTarget.create(
+                    WINDOW_WIDTH / lowResDivisor, WINDOW_HEIGHT / lowResDivisor
+                );
+            } catch (TextureCreationException e) {
+                e.printStackTrace();
+                lowResTarget = null;
+                lowResDivisor = 0;
+                Renderer.replay(frame, window);
+                return;
+            }
+            lowResTarget.setSmooth(false);
+            lowResSprite = new Sprite(lowResTarget.getTexture());
+            lowResSprite.setScale(lowResDivisor, lowResDivisor);
+        }
+
+        //same view as the window so everything lands in the same place
+        ConstView v = window.getView();
+        lowResTarget.setView(v);
+        lowResTarget.clear(Color.BLACK);
+        Renderer.resetStats();
+        Renderer.replay(frame, lowResTarget, Integer.MAX_VALUE, LOW_RES_FRONT_LAYER);
+        lowResTarget.display();
+
+        lowResSprite.setPosition(Vector2f.sub(v.getCenter(), Vector2f.div(v.getSize(), 2)));
+        window.draw(lowResSprite);
+        Renderer.replay(frame, window, LOW_RES_FRONT_LAYER - 1, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Records everything drawn this frame into a snapshot and
+     * publishes it to be drawn, called from whichever thread
+     * runs the simulation once the frame has been simulated
+     */
+    private void recordFrame() {
+        Profiler.begin(RECORD_SCOPE);
+        road.record(TimeManager.interpolationAlpha());
+        Renderer.record(RenderSnapshot.recording().drawList, getViewRect());
+        RenderSnapshot.publish(frameInputTime);
+        Profiler.end();
+    }
+
+    /**
+     * Advances time, handles input and runs the game logic for one
+     * frame, called from whichever thread runs the simulation
+     */
+    private void simulateFrame() {
+        Profiler.begin(INPUT_SCOPE);
+        Input.clearFlags();
+        stepEvents.clear();
+        int steps;
+        if (replay != null)
+            steps = playReplayFrame();
+        else
+            steps = liveFrame();
+        frameInputTime = stepEvents.getOldestTime();
+        Profiler.end();
+
+        runFixedSteps(steps);
+        Profiler.begin(UPDATE_SCOPE);
+        update();
+        Profiler.end();
+    }
+
+    /**
+     * Takes the frame's time and input from the clock and window,
+     * recording the time if a replay is being recorded
+     * @return number of simulation steps to run this frame
+     */
+    private int liveFrame() {
+        TimeManager.update();
+        if (recorder != null) {
+            try {
+                recorder.frame(TimeManager.real().deltaTime());
+            } catch (IOException e) {
+                e.printStackTrace();
+                stopRecording();
+            }
+        }
+        int steps = TimeManager.fixedSteps();
+
+        Event event;
+        while ((event = pendingEvents.poll()) != null) {
+            long time = pendingEvents.getPolledTime();
+            stepEvents.add(event, time, TimeManager.stepForTime(time, steps));
+        }
+        return steps;
+    }
+
+    /**
+     * Takes the frame's time and input from the replay, going back
+     * to live input once the replay has finished
+     * @return number of simulation steps to run this frame
+     */
+    private int playReplayFrame() {
+        //live input is ignored while a replay is playing
+        pendingEvents.clear();
+
+        try {
+            float frameTime = replay.nextFrame();
+            if (frameTime >= 0) {
+                TimeManager.update(frameTime);
+                replay.playEvents(replayHandler);
+                return TimeManager.fixedSteps();
+            }
+            System.out.println("Replay finished after " + replay.getFrames() + " frames");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        replay = null;
+        return liveFrame();
+    }
+
+    /**
+     * Polls every waiting event from the window and queues it for
+     * the simulation with the time it was polled
+     * pollEvent() is used rather than pollEvents() so no iterator is made
+     */
+    private void pumpEvents() {
+        Event event;
+        while ((event = window.pollEvent()) != null) {
+            if (event.type == Event.Type.CLOSED) {
+                // The user pressed the close button
+                window.close();
+            }
+
+            //everything else is handled by the simulation
+            if (!pendingEvents.add(event, System.nanoTime()))
+                System.err.println("Event queue full, dropped " + event.type);
+        }
+    }
+
+    /**
+     * Handles one of this frame's events, recording
+     * it if a replay is being recorded
+     * @param event the event
+     * @param step simulation step the event happened before
+     */
+    private void dispatchEvent(Event event, int step) {
+        dispatchStep = step;
+        if (recorder != null) {
+            try {
+                recorder.event(event, step);
+            } catch (IOException e) {
+                e.printStackTrace();
+                stopRecording();
+            }
+        }
+        handleEvent(event);
+    }
+
+    /**
+     * Seeds the road from the replay being played back or recorded
+     * so the run can be reproduced
+     */
+    private void startReplay() {
+        try {
+            if (replayPath != null) {
+                replay = new ReplayPlayer(replayPath);
+                road.setSeed(replay.getSeed());
+            } else if (recordPath != null) {
+                long seed = System.nanoTime();
+                recorder = new ReplayRecorder(recordPath, seed);
+                road.setSeed(seed);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            replay = null;
+            recorder = null;
+        }
+        TimeManager.resetFixedSteps();
+    }
+
+    /**
+     * Finishes the replay being recorded, if there is one
+     */
+    private void stopRecording() {
+        if (recorder == null) return;
+        try {
+            recorder.close();
+            System.out.println("Recorded " + recorder.getFrames() + " frames to " + recordPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        recorder = null;
+    }
+
+    /**
+     * Record a game action triggered by the UI, if recording
+     * @param c the action
+     */
+    private void recordCommand(ReplayCommand c) {
+        if (recorder == null) return;
+        try {
+            recorder.command(c, dispatchStep);
+        } catch (IOException e) {
+            e.printStackTrace();
+            stopRecording();
+        }
+    }
+
+    /**
+     * Pass an event on to the input and button managers
+     * @param event event polled from the window
+     */
+    private void handleEvent(Event event) {
+        if (event.asMouseEvent() != null) {
+            Profiler.begin(BUTTONS_SCOPE);
+            buttonManager.mouseEvent(event);
+            Profiler.end();
+
+            if (event.asMouseButtonEvent() != null) {
+                Input.mouseEvent(event);
+            }
+        }
+
+        if (event.asKeyEvent() != null) {
+            Input.keyEvent(event);
+        }
+    }
+
+    /**
+     * Runs the simulation steps for this frame, handling each
+     * event just before the step it happened in
+     * @param steps number of steps to run
+     */
+    private void runFixedSteps(int steps) {
+        Profiler.begin(FIXED_UPDATE_SCOPE);
+        for (int i = 0; i < steps; i++) {
+            stepEvents.handleUntil(i, eventHandler);
+            TimeManager.beginFixedStep();
+            fixedUpdate();
+            TimeManager.endFixedStep();
+            Input.clearStepFlags();
+        }
+        //with no steps this frame events are handled now and any
+        //presses stay latched until the next step
+        stepEvents.handleRemaining(eventHandler);
+        Profiler.end();
+    }
+
+    /**
+     * Starts running the simulation on its own thread, from here
+     * on the main thread only draws published RenderSnapshots
+     */
+    private void startSimulation() {
+        simulating = true;
+        simulationThread = new Thread(this::simulationLoop, "Simulation");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+    }
+
+    /**
+     * Stops the simulation thread and waits for it to finish
+     */
+    private void stopSimulation() {
+        simulating = false;
+        try {
+            simulationThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Main loop of the simulation thread, runs at the target framerate
+     * and publishes a RenderSnapshot after every update
+     * The main thread draws the last snapshot while this runs
+     */
+    private void simulationLoop() {
+        long period = 1_000_000_000L / FramePacer.getTargetFramerate();
+        long next = System.nanoTime();
+        TimeManager.update();
+
+        while (simulating) {
+            Profiler.beginFrame();
+            long frameStart = Trace.now();
+            simulateFrame();
+            recordFrame();
+            Trace.complete("Simulation Frame", "frame", frameStart);
+            Profiler.endFrame();
+
+            next += period;
+            long wait = next - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+            else
+                next = System.nanoTime();
         }
     }
 
@@ -211,6 +707,7 @@ public class FullThrottle {
         buttonManager = ButtonManager.getInstance();
 
         updatables = new ArrayList<>();
+        updatableScopes = new ArrayList<>();
 
         TimeManager.update();
     }
@@ -220,43 +717,39 @@ public class FullThrottle {
      */
     private void load() {
         // Menu
-        Texture settingsT = new FTTexture("./res/Settings.png");
-        Sprite settingsS = new Sprite(settingsT);
+        Sprite settingsS = TextureAtlas.getRegion("./res/Settings.png").createSprite();
         settingsButton = new Button(
             new Vector2f(10, 10), new Vector2i(64, 64),
             settingsS, UI.SpriteFillMode.STRETCH
         );
-        buttonManager.addObserver(settingsButton);
-        
+
         playButton = new PlayButton(
             Vector2f.ZERO, new Vector2i(192, 96)
         );
         playButton.addAction(this, "startGame", ActionType.LEFT_CLICK);
-        buttonManager.addObserver(playButton);
 
         highScoreButton = new HighScoresButton(
             Vector2f.ZERO, new Vector2i(192, 96)
         );
         highScoreButton.addAction(this, "showLeaderBoard", ActionType.LEFT_CLICK);
-        buttonManager.addObserver(highScoreButton);
 
         leaderBoard = new LeaderBoard();
         leaderBoard.addCloseCallback(this, "hideLeaderBoard", ActionType.LEFT_CLICK);
 
         background = new ParallaxBackground(window, Direction.LEFT, 3000);
 
-        Texture sky = new FTTexture("./res/BackgroundTest/Sky.png");
-        Texture buildings = new FTTexture("./res/BackgroundTest/Buildings.png");
+        TextureRegion sky = TextureAtlas.getRegion("./res/BackgroundTest/Sky.png");
+        TextureRegion buildings = TextureAtlas.getRegion("./res/BackgroundTest/Buildings.png");
 
-        Sprite skyS = new Sprite(sky);
+        Sprite skyS = sky.createSprite();
         skyS.scale(2.8125f, 2.8125f);
-        Sprite buildingsS = new Sprite(buildings);
+        Sprite buildingsS = buildings.createSprite();
         buildingsS.scale(2.8125f, 2.8125f);
 
         background.addElement(skyS, 30, Vector2f.ZERO);
         background.addElement(buildingsS, 15, Vector2f.ZERO);
         
-        updatables.add(background);
+        addUpdatable(background);
 
 
 
@@ -266,10 +759,9 @@ public class FullThrottle {
 
         fuelBar = new ProgressBar(
             new Vector2f(10, 10), new Vector2f(256, 64), 100,
-            new FTTexture("./res/FuelBar.png"), new Vector2i(16, 16),
+            TextureAtlas.getRegion("./res/FuelBar.png"), new Vector2i(16, 16),
             80, new float[] {25, 50, 100}
         );
-        updatables.add(fuelBar);
 
         player = new Player();
 
@@ -281,7 +773,7 @@ public class FullThrottle {
 
 
         // Game Over
-        gameOverText = new UISprite(new FTTexture("./res/GameOver.png"));
+        gameOverText = new UISprite(TextureAtlas.getRegion("./res/GameOver.png"));
         gameOverText.setPosition(new Vector2f(
             (WINDOW_WIDTH - gameOverText.getGlobalBounds().width) / 2,
             50
@@ -294,7 +786,7 @@ public class FullThrottle {
         Vector2i gameOverButtonSize = new Vector2i(192, 96);
         Vector2f gameOverButtonScale = Vector2f.componentwiseDiv(new Vector2f(gameOverButtonSize), new Vector2f(64, 32));
 
-        Texture mmbTexture = new FTTexture("./res/MainMenuButton.png");
+        TextureRegion mmbTexture = TextureAtlas.getRegion("./res/MainMenuButton.png");
         Spritesheet mmbSheet = new Spritesheet(mmbTexture, new Vector2i(64, 32));
         SpriteSequence mmbIdleSeq = new SpriteSequence(mmbSheet, 0, 0);
         SpriteSequence mmbEnterSeq = new SpriteSequence(mmbSheet, 7, 13);
@@ -313,9 +805,8 @@ public class FullThrottle {
         mainMenuButton.addAction(this, "mmbEnter", ActionType.ENTER);
         mainMenuButton.addAction(this, "mmbExit", ActionType.EXIT);
         mainMenuButton.addAction(this, "mmbClick", ActionType.LEFT_CLICK);
-        buttonManager.addObserver(mainMenuButton);
 
-        Texture ssbTexture = new FTTexture("./res/SubmitButton.png");
+        TextureRegion ssbTexture = TextureAtlas.getRegion("./res/SubmitButton.png");
         Spritesheet ssbSheet = new Spritesheet(ssbTexture, new Vector2i(64, 32));
         SpriteSequence ssbIdleSeq = new SpriteSequence(ssbSheet, 0, 0);
         SpriteSequence ssbEnterSeq = new SpriteSequence(ssbSheet, 7, 13);
@@ -335,9 +826,8 @@ public class FullThrottle {
         submitScoreButton.addAction(this, "ssbEnter", ActionType.ENTER, true);
         submitScoreButton.addAction(this, "ssbExit", ActionType.EXIT, true);
         submitScoreButton.addAction(this, "ssbClick", ActionType.LEFT_CLICK, true);
-        buttonManager.addObserver(submitScoreButton);
 
-        Texture pagTexture = new FTTexture("./res/PlayAgainButton.png");
+        TextureRegion pagTexture = TextureAtlas.getRegion("./res/PlayAgainButton.png");
         Spritesheet pagSheet = new Spritesheet(pagTexture, new Vector2i(64, 32));
         SpriteSequence pagIdleSeq = new SpriteSequence(pagSheet, 0, 0);
         SpriteSequence pagEnterSeq = new SpriteSequence(pagSheet, 7, 13);
@@ -356,7 +846,6 @@ public class FullThrottle {
         playAgainButton.addAction(this, "pagEnter", ActionType.ENTER);
         playAgainButton.addAction(this, "pagExit", ActionType.EXIT);
         playAgainButton.addAction(this, "pagClick", ActionType.LEFT_CLICK);
-        buttonManager.addObserver(playAgainButton);
     }
 
     /**
@@ -364,70 +853,88 @@ public class FullThrottle {
      */
     private void start() {
         Renderer.clear();
+        Renderer.setLayerCached(STATIC_BACK_LAYER, true);
+        Renderer.setLayerCached(MENU_FRONT_LAYER, true);
+        Renderer.setLayerCached(GAME_OVER_FRONT_LAYER, true);
 
-        // Menu
+        // Shared by every scene
         title.setPosition(title.getGlobalBounds().left, 50);
-        Renderer.addDrawable(title);
-        // Renderer.addDrawable(settingsButton, -50);
-        Renderer.addDrawable(playButton, -50);
-        Renderer.addDrawable(highScoreButton, -50);
+        Renderer.addDrawable(title, STATIC_BACK_LAYER);
+        Renderer.addDrawable(gameOverText, STATIC_BACK_LAYER);
         Renderer.addDrawable(background, 1000);
-        Renderer.addDrawable(leaderBoard, -100);
-
-        // Gameplay
         Renderer.addDrawable(road);
-        Renderer.addDrawable(fuelBar);
         Renderer.addDrawable(player, 0);
 
+        // Menu
+        menuScene = new Scene();
+        // menuScene.addDrawable(settingsButton, MENU_BUTTON_LAYER);
+        menuScene.addDrawable(playButton, MENU_BUTTON_LAYER);
+        menuScene.addDrawable(highScoreButton, MENU_BUTTON_LAYER);
+        menuScene.addDrawable(leaderBoard, MENU_FRONT_LAYER);
+        menuScene.addButton(settingsButton);
+        menuScene.addButton(playButton);
+        menuScene.addButton(highScoreButton);
+
+        // Gameplay
+        gameplayScene = new Scene();
+        gameplayScene.addDrawable(fuelBar, GAMEPLAY_LAYER);
+        gameplayScene.addUpdatable(fuelBar);
+        addUpdatable(gameplayScene);
+
         // Upgrades
 
         // Game Over
-        Renderer.addDrawable(gameOverText);
-        Renderer.addDrawable(nameInput, -100);
-        Renderer.addDrawable(mainMenuButton, -100);
-        Renderer.addDrawable(playAgainButton, -100);
-        Renderer.addDrawable(submitScoreButton, -100);
+        gameOverScene = new Scene();
+        nameInput.setVisible(true);
+        gameOverScene.addDrawable(nameInput, GAME_OVER_FRONT_LAYER);
+        gameOverScene.addDrawable(mainMenuButton, GAME_OVER_BUTTON_LAYER);
+        gameOverScene.addDrawable(playAgainButton, GAME_OVER_BUTTON_LAYER);
+        gameOverScene.addDrawable(submitScoreButton, GAME_OVER_BUTTON_LAYER);
+        gameOverScene.addButton(mainMenuButton);
+        gameOverScene.addButton(playAgainButton);
+        gameOverScene.addButton(submitScoreButton);
 
 
         // Start the game manager
         gameManager = new GameManager(this);
-        updatables.add(gameManager);
+        addUpdatable(gameManager);
         Renderer.addDrawable(gameManager, -60);
     }
 
-    private void update() {
-        for (Updatable u : updatables) {
-            u.update();
+    /**
+     * Runs one simulation step of every Updatable, called at a fixed
+     * rate (TimeManager.FIXED_TIMESTEP) regardless of framerate
+     */
+    private void fixedUpdate() {
+        for (int i = 0; i < updatables.size(); i++) {
+            Profiler.begin(updatableScopes.get(i));
+            updatables.get(i).update();
+            Profiler.end();
         }
+    }
 
-        score += 5*score_mult;
-        if (score==3000*score_mult*score_mult){
-            road.setRoadSection(RoadSection.WHITE);
-        }
-        if (score==6000*score_mult*score_mult){
-            road.setRoadSection(RoadSection.YELLOW);
-        }
-        if (score==9000*score_mult*score_mult){
-            road.setRoadSection(RoadSection.DIRT);
-            score_mult = score_mult *3;
+    /**
+     * Add an Updatable to be updated every simulation step
+     * @param u object to update
+     */
+    private void addUpdatable(Updatable u) {
+        updatables.add(u);
+        updatableScopes.add(Profiler.register(u.getClass().getSimpleName()));
+    }
+
+    /**
+     * Runs once per rendered frame, for anything that relies
+     * on per-frame input flags
+     */
+    private void update() {
+        if (Input.getKeyDown(Key.F3)) {
+            showFps = !showFps;
+            Profiler.setEnabled(showFps);
         }
+        if (Input.getKeyDown(Key.F4))
+            frameTimeOverlay.dumpCsv();
 
-        if (Input.getKeyDown(Key.NUM1))
-            road.setRoadSection(RoadSection.WHITE);
-        if (Input.getKeyDown(Key.NUM2))
-            road.setRoadSection(RoadSection.YELLOW);
-        if (Input.getKeyDown(Key.NUM3))
-            road.setRoadSection(RoadSection.DIRT);
-        if (Input.getKey(Key.UP))
-        if (Input.getKey(Key.DOWN))
-        if (Input.getKey(Key.LEFT))
-        if (Input.getKey(Key.RIGHT))
-            
-        if (Input.getKeyDown(Key.P))
-            if (gameManager.isPaused())
-                gameManager.play();
-            else
-                gameManager.pause();
+        gameManager.frameUpdate();
     }
 
     public static RenderWindow getWindow() {
@@ -445,10 +952,12 @@ public class FullThrottle {
     }
 
     /**
-     * Get the coordinates and size of the viewport of the window
+     * Get the coordinates and size of the viewport of the window,
+     * or a virtual viewport the size of the window if there is none
      * @return viewport as a FloatRect
      */
     public static FloatRect getViewRect() {
+        if (window == null) return VIRTUAL_VIEW_RECT;
         ConstView v = FullThrottle.getWindow().getView();
         Vector2f halfSize = Vector2f.div(v.getSize(), 2f);
         Vector2f vo = Vector2f.sub(v.getCenter(), halfSize);
@@ -460,6 +969,7 @@ public class FullThrottle {
     }
 
     public void startGame() {
+        recordCommand(ReplayCommand.START_GAME);
         gameManager.startGame();
     }
 
@@ -492,6 +1002,7 @@ public class FullThrottle {
     }
 
     public void mmbClick() {
+        recordCommand(ReplayCommand.MAIN_MENU);
         gameManager.mainMenu();
     }
 
@@ -528,10 +1039,69 @@ public class FullThrottle {
     }
 
     public void pagClick() {
+        recordCommand(ReplayCommand.PLAY_AGAIN);
         gameManager.playAgain();
     }
 
+    /**
+     * Start writing a trace of the session to a file
+     * @param path file to write the trace to
+     */
+    static void startTrace(String path) {
+        try {
+            Trace.start(path);
+        } catch (IOException e) {
+            System.err.println("Couldn't start trace: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Draw the game world at the window size divided by a whole
+     * number, ignored if the window doesn't divide evenly
+     * @param divisor 1 or less draws at full size
+     */
+    static void setLowResDivisor(int divisor) {
+        if (divisor <= 1) {
+            lowResDivisor = 0;
+        } else if (WINDOW_WIDTH % divisor != 0 || WINDOW_HEIGHT % divisor != 0) {
+            System.err.println(
+                "Can't draw at 1/" + divisor + " of " +
+                WINDOW_WIDTH + "x" + WINDOW_HEIGHT + ", drawing at full size"
+            );
+            lowResDivisor = 0;
+        } else {
+            lowResDivisor = divisor;
+        }
+    }
+
     public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--vsync"))
+                FramePacer.setMode(FramePacer.Mode.VSYNC);
+            else if (arg.equals("--uncapped"))
+                FramePacer.setMode(FramePacer.Mode.UNCAPPED);
+            else if (arg.equals("--threaded"))
+                threaded = true;
+            else if (arg.equals("--low-res"))
+                setLowResDivisor(DEFAULT_LOW_RES_DIVISOR);
+            else if (arg.startsWith("--low-res="))
+                setLowResDivisor(
+                    Integer.parseInt(arg.substring("--low-res=".length()))
+                );
+            else if (arg.equals("--fixed-quality"))
+                QualityGovernor.setEnabled(false);
+            else if (arg.startsWith("--record="))
+                recordPath = arg.substring("--record=".length());
+            else if (arg.startsWith("--replay="))
+                replayPath = arg.substring("--replay=".length());
+            else if (arg.startsWith("--trace="))
+                startTrace(arg.substring("--trace=".length()));
+            else if (arg.startsWith("--fps="))
+                FramePacer.setTargetFramerate(
+                    Integer.parseInt(arg.substring("--fps=".length()))
+                );
+        }
+
         new FullThrottle();
     }
 }
@@ -1,20 +1,26 @@
 package fullthrottle;
 
+import java.util.EnumMap;
+
 import org.jsfml.graphics.Color;
 import org.jsfml.graphics.Drawable;
 import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.RenderTarget;
 import org.jsfml.graphics.Text;
-import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 import org.jsfml.window.Keyboard.Key;
 
 import fullthrottle.Pickup.PickupType;
+import fullthrottle.Road.RoadSection;
 import fullthrottle.gfx.Animation;
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.Batchable;
 import fullthrottle.gfx.ParallaxBackground;
+import fullthrottle.gfx.QualityGovernor;
+import fullthrottle.gfx.SpriteBatch;
 import fullthrottle.gfx.SpriteSequence;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.gfx.TextureRegion;
 import fullthrottle.gfx.Spritesheet;
 import fullthrottle.ui.Button;
 import fullthrottle.ui.ProgressBar;
@@ -25,11 +31,10 @@ import fullthrottle.util.Input;
 import fullthrottle.util.TimeManager;
 import fullthrottle.util.Updatable;
 
-public final class GameManager implements Updatable, Drawable {
+public final class GameManager implements Updatable, Drawable, Batchable {
 
     // MENU
     private UISprite title;
-    private Button playButton, highScoreButton, settingsButton;
     private LeaderBoard leaderBoard;
     private ParallaxBackground background;
     // MENU END
@@ -53,10 +58,37 @@ public final class GameManager implements Updatable, Drawable {
     private Button mainMenuButton, submitScoreButton, playAgainButton;
     // GAME OVER END
 
-    private boolean paused;
+    /**
+     * false when running headless, in which case none of
+     * the menus, game over screen or health alert exist
+     */
+    private boolean hasUI;
+
     private float playingTime;
     private float score;
+    /**
+     * Time left (UI time) until the game resumes after a crash
+     */
+    private float crashPauseTime;
+
+    private double sectionScore = 0;
+    private double sectionScoreMult = 1;
     private GameState currentGameState;
+    /**
+     * Scene shown in each state, empty when there's no UI
+     */
+    private EnumMap<GameState, Scene> scenes = new EnumMap<>(GameState.class);
+
+    /**
+     * Seconds of play after a slam before the player can slam again
+     */
+    private static final float SHIFT_COOLDOWN = 1.5f;
+
+    /**
+     * Section score gained per second of real time before the
+     * multiplier, the 5 a frame it used to gain at 60fps
+     */
+    private static final float SECTION_SCORE_RATE = 5 * 60;
 
     private enum GameState {
         MAIN_MENU,
@@ -66,11 +98,10 @@ public final class GameManager implements Updatable, Drawable {
     }
 
     public GameManager(FullThrottle game) {
+        this.hasUI = true;
+
         // Menu
         this.title = game.title;
-        this.playButton = game.playButton;
-        this.highScoreButton = game.highScoreButton;
-        this.settingsButton = game.settingsButton;
         this.leaderBoard = game.leaderBoard;
         this.background = game.background;
         // Gameplay
@@ -78,7 +109,7 @@ public final class GameManager implements Updatable, Drawable {
         this.player = game.player;
         this.fuelBar = game.fuelBar;
 
-        Texture hATexture = new FTTexture("./res/HealthAlert.png");
+        TextureRegion hATexture = TextureAtlas.getRegion("./res/HealthAlert.png");
         Spritesheet hASheet = new Spritesheet(hATexture, new Vector2i(256, 144));
         SpriteSequence hASeq = new SpriteSequence(hASheet);
         healthAlertAnim = new Animation(hASeq, 16, false);
@@ -96,7 +127,6 @@ public final class GameManager implements Updatable, Drawable {
         healthAlertAnim.restart();
 
         healthManager = new HealthManager(new Vector2f(288, 10), 64);
-        this.paused = false;
         this.score = 0;
         // Upgrades
 
@@ -108,13 +138,40 @@ public final class GameManager implements Updatable, Drawable {
         this.submitScoreButton = game.submitScoreButton;
         this.playAgainButton = game.playAgainButton;
 
+        scenes.put(GameState.MAIN_MENU, game.menuScene);
+        scenes.put(GameState.GAMEPLAY, game.gameplayScene);
+        scenes.put(GameState.UPGRADE, game.gameplayScene);
+        scenes.put(GameState.GAME_OVER, game.gameOverScene);
+
+        currentGameState = GameState.MAIN_MENU;
+
+        mainMenu();
+    }
+
+    /**
+     * Creates a GameManager with no menus or UI,
+     * used when running the simulation headless
+     * @param road the road to play on
+     * @param player the player's car
+     * @param fuelBar tracks the player's fuel
+     */
+    public GameManager(Road road, Player player, ProgressBar fuelBar) {
+        this.hasUI = false;
+
+        this.road = road;
+        this.player = player;
+        this.fuelBar = fuelBar;
+
+        healthManager = new HealthManager(new Vector2f(288, 10), 64);
+        this.score = 0;
+
         currentGameState = GameState.MAIN_MENU;
 
         mainMenu();
     }
 
     public void movePlayer(Vector2f moveDirection) {
-        if (paused)
+        if (isPaused())
             return;
         player.move(moveDirection);
         Vector2f playerPos = player.getPosition();
@@ -133,20 +190,80 @@ public final class GameManager implements Updatable, Drawable {
         player.setPosition(new Vector2f(pX, pY));
     }
 
+    /**
+     * Runs once per frame rather than every simulation step, for
+     * anything that relies on per-frame input flags
+     */
+    public void frameUpdate() {
+        if (Input.getKeyDown(Key.NUM1))
+            road.setRoadSection(RoadSection.WHITE);
+        if (Input.getKeyDown(Key.NUM2))
+            road.setRoadSection(RoadSection.YELLOW);
+        if (Input.getKeyDown(Key.NUM3))
+            road.setRoadSection(RoadSection.DIRT);
+        if (Input.getKey(Key.UP))
+        if (Input.getKey(Key.DOWN))
+        if (Input.getKey(Key.LEFT))
+        if (Input.getKey(Key.RIGHT))
+            
+        if (Input.getKeyDown(Key.P))
+            if (isPaused())
+                play();
+            else
+                pause();
+    }
+
+    /**
+     * Moves the road on to the next section each time the section
+     * score passes a threshold, called every simulation step
+     */
+    private void updateRoadSection() {
+        double previous = sectionScore;
+        sectionScore += SECTION_SCORE_RATE * sectionScoreMult * TimeManager.real().deltaTime();
+        if (passed(previous, 3000*sectionScoreMult*sectionScoreMult)){
+            road.setRoadSection(RoadSection.WHITE);
+        }
+        if (passed(previous, 6000*sectionScoreMult*sectionScoreMult)){
+            road.setRoadSection(RoadSection.YELLOW);
+        }
+        if (passed(previous, 9000*sectionScoreMult*sectionScoreMult)){
+            road.setRoadSection(RoadSection.DIRT);
+            sectionScoreMult = sectionScoreMult *3;
+        }
+    }
+
+    /**
+     * @param previous section score before this step
+     * @return true if the section score reached threshold this step
+     */
+    private boolean passed(double previous, double threshold) {
+        return previous < threshold && sectionScore >= threshold;
+    }
+
     @Override
     public void update() {
+        road.savePreviousState();
+        player.savePreviousState();
+        updateRoadSection();
+
+        //resume once the crash explosion has played
+        if (crashPauseTime > 0) {
+            crashPauseTime -= TimeManager.ui().deltaTime();
+            if (crashPauseTime <= 0)
+                play();
+        }
+
         movePlayer(new Vector2f(-0.2222f,0));
         if (currentGameState == GameState.MAIN_MENU) {
             road.setSpeed(roadSpeedFunction(playingTime));
         } else if (currentGameState == GameState.GAMEPLAY) {
-            fuelBar.addToValue(-5 * TimeManager.deltaTime());
+            fuelBar.addToValue(-5 * TimeManager.game().deltaTime());
             if(fuelBar.getCurrentValue() <= 0)
                 gameOver();
-            playingTime += TimeManager.deltaTime();
-            if (!paused) {
+            playingTime += TimeManager.game().deltaTime();
+            if (!isPaused()) {
                 road.update();
-                playingTime += TimeManager.deltaTime();
-                if (playingTime - player.getShiftStart() >= 3){
+                if (playingTime - player.getShiftStart() >= SHIFT_COOLDOWN){
                     player.setShifted(false);
                 }
                 if (player.isActive()) {
@@ -202,9 +319,14 @@ public final class GameManager implements Updatable, Drawable {
             if (road.isPlayerColliding(player.getBounds())) {
                 if (!player.getSlam())
                 {
+                    //paused until the explosion has played, headless
+                    //too so that replays play out the same
                     pause();
-                    healthAlertAnim.restart();
-                    healthAlertAnim.play();
+                    crashPauseTime = Road.EXPLOSION_LENGTH;
+                    if (hasUI) {
+                        healthAlertAnim.restart();
+                        healthAlertAnim.play();
+                    }
                     int health = healthManager.removeHealth();
                     if (health == 0) {
                         gameOver();
@@ -214,79 +336,78 @@ public final class GameManager implements Updatable, Drawable {
                 
             }
 
-            Pickup p = road.isPlayerOnPickup(player.getBounds());
-            if (p != null) {
-                if (p.getType() == PickupType.FUEL) {
-                    fuelBar.addToValue(10);
-                }
+            PickupType p = road.isPlayerOnPickup(player.getBounds());
+            if (p == PickupType.FUEL) {
+                fuelBar.addToValue(10);
             }
 
 
             road.setSpeed(roadSpeedFunction(playingTime));
-            score += road.getSpeed() * road.getSpeed() * TimeManager.deltaTime() / 10000f;
+            score += road.getSpeed() * road.getSpeed() * TimeManager.game().deltaTime() / 10000f;
         } else if (currentGameState == GameState.UPGRADE) {
 
         } else if (currentGameState == GameState.GAME_OVER) {
-            playingTime += TimeManager.deltaTime();
-            if (playingTime > 2 && startGameOver) {
+            //the game over screen runs on UI time so it isn't held
+            //up by the game being paused
+            playingTime += TimeManager.ui().deltaTime();
+            if (playingTime > 2 && startGameOver && hasUI) {
                 startGameOver = false;
-                nameInput.setVisible(true);
-
-                mainMenuButton.setVisible(true);
-                mainMenuButton.setEnabled(true);
-                submitScoreButton.setVisible(true);
+                showScene(GameState.GAME_OVER);
                 submitScoreButton.setEnabled(true);
-                playAgainButton.setVisible(true);
-                playAgainButton.setEnabled(true);
                 mainMenuButton.setDefaultColor(Color.WHITE);
                 submitScoreButton.setDefaultColor(Color.WHITE);
                 playAgainButton.setDefaultColor(Color.WHITE);
             }
         }
 
-        if (!paused) {
+        if (!isPaused()) {
             road.update();
         }
     }
 
     @Override
     public void draw(RenderTarget arg0, RenderStates arg1) {
+        SpriteBatch.drawNow(this, arg0, arg1);
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates arg1) {
         if (currentGameState == GameState.MAIN_MENU) {
 
         } else if (currentGameState == GameState.GAMEPLAY) {
-            healthManager.draw(arg0, arg1);
-            healthAlertAnim.draw(arg0, arg1);
+            healthManager.batch(batch, arg1);
+            drawHealthAlert(batch, arg1);
         } else if (currentGameState == GameState.UPGRADE) {
-            healthManager.draw(arg0, arg1);
-            healthAlertAnim.draw(arg0, arg1);
+            healthManager.batch(batch, arg1);
+            drawHealthAlert(batch, arg1);
         } else if (currentGameState == GameState.GAME_OVER) {
-            healthAlertAnim.draw(arg0, arg1);
+            drawHealthAlert(batch, arg1);
         }
     }
 
+    /**
+     * Draws the full-screen health alert, unless the quality
+     * governor has turned it off, in which case it's finished
+     * straight away so it doesn't play late when turned back on
+     */
+    private void drawHealthAlert(SpriteBatch batch, RenderStates states) {
+        if (QualityGovernor.atLeast(QualityGovernor.Level.NO_HEALTH_ALERT))
+            healthAlertAnim.jumpToEnd();
+        else
+            batch.draw(healthAlertAnim, states);
+    }
+
     public void mainMenu() {
         currentGameState = GameState.MAIN_MENU;
 
-        playButton.setVisible(true);
-        playButton.setEnabled(true);
-        highScoreButton.setVisible(true);
-        highScoreButton.setEnabled(true);
-        settingsButton.setVisible(true);
-        settingsButton.setEnabled(true);
-        leaderBoard.setVisible(false);
-        title.setVisible(true);
+        showScene(GameState.MAIN_MENU);
+        if (hasUI) {
+            leaderBoard.setVisible(false);
+            title.setVisible(true);
+            gameOverText.setVisible(false);
+        }
         road.setVisible(true);
         road.generateObstacles(false);
-        gameOverText.setVisible(false);
-        nameInput.setVisible(false);
-        fuelBar.setVisible(false);
-
-        mainMenuButton.setVisible(false);
-        mainMenuButton.setEnabled(false);
-        submitScoreButton.setVisible(false);
-        submitScoreButton.setEnabled(false);
-        playAgainButton.setVisible(false);
-        playAgainButton.setEnabled(false);
 
         road.clearObstacles();
         healthManager.reset();
@@ -296,14 +417,8 @@ public final class GameManager implements Updatable, Drawable {
         road.clearObstacles();
         score = 0;
         healthManager.reset();
-        gameOverText.fadeOut(.6f);
-        nameInput.setVisible(false);
-        mainMenuButton.setVisible(false);
-        submitScoreButton.setVisible(false);
-        playAgainButton.setVisible(false);
-        mainMenuButton.setEnabled(false);
-        submitScoreButton.setEnabled(false);
-        playAgainButton.setEnabled(false);
+        if (hasUI)
+            gameOverText.fadeOut(.6f);
 
         fuelBar.setToMax();
 
@@ -312,29 +427,26 @@ public final class GameManager implements Updatable, Drawable {
 
     public void startGame() {
         if (currentGameState == GameState.MAIN_MENU) {
-            title.fadeOut(.6f);
+            if (hasUI)
+                title.fadeOut(.6f);
             fuelBar.setToMax();
         }
-        fuelBar.setVisible(true);
-        playButton.setVisible(false);
-        playButton.setEnabled(false);
-        highScoreButton.setVisible(false);
-        highScoreButton.setEnabled(false);
-        settingsButton.setVisible(false);
-        settingsButton.setEnabled(false);
-        leaderBoard.setVisible(false);
         currentGameState = GameState.GAMEPLAY;
+        showScene(GameState.GAMEPLAY);
         player.resetPosition();
         player.setVisible(true);
         
 
         road.generateObstacles(true);
         playingTime = 0;
+        crashPauseTime = 0;
+        play();
         player.setActive(true);
     }
 
     public void startUpgrades() {
         currentGameState = GameState.UPGRADE;
+        showScene(GameState.UPGRADE);
         
         road.generateObstacles(false);
         player.setActive(false);
@@ -344,27 +456,54 @@ public final class GameManager implements Updatable, Drawable {
         currentGameState = GameState.GAME_OVER;
 
         player.setVisible(false);
-        fuelBar.setVisible(false);
+        //the game over scene is shown once the text has faded in
+        showScene(null);
         startGameOver = true;
 
-        gameOverText.fadeIn(2);
+        if (hasUI)
+            gameOverText.fadeIn(2);
         playingTime = 0;
     }
 
+    /**
+     * Switch to the scene for a state, turning every other scene off
+     * @param state state to show the scene of, null to show none
+     */
+    private void showScene(GameState state) {
+        Scene shown = state == null ? null : scenes.get(state);
+        for (Scene s : scenes.values())
+            if (s != shown)
+                s.setActive(false);
+        if (shown != null)
+            shown.setActive(true);
+    }
+
+    public boolean isGameOver() {
+        return currentGameState == GameState.GAME_OVER;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
     private float roadSpeedFunction(float t) {
-        return Math.min(500, 150 + ((t / 2) * 5));
+        return Math.min(500, 150 + (t * 5));
     }
 
+    /**
+     * Whether gameplay is paused, i.e. game time is stopped
+     * @return true if paused
+     */
     public boolean isPaused() {
-        return paused;
+        return TimeManager.game().isPaused();
     }
 
     public void pause() {
-        this.paused = true;
+        TimeManager.game().pause();
     }
 
     public void play() {
-        this.paused = false;
+        TimeManager.game().resume();
     }
 
     public void submitScore() {
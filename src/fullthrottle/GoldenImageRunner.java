@@ -0,0 +1,304 @@
+package fullthrottle;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.Image;
+import org.jsfml.graphics.RenderTexture;
+import org.jsfml.graphics.Sprite;
+import org.jsfml.graphics.TextureCreationException;
+import org.jsfml.system.Vector2f;
+import org.jsfml.system.Vector2i;
+
+import fullthrottle.debug.FrameTimeHistogram;
+import fullthrottle.gfx.ParallaxBackground;
+import fullthrottle.gfx.ParallaxBackground.Direction;
+import fullthrottle.gfx.QualityGovernor;
+import fullthrottle.gfx.Renderer;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.gfx.TextureRegion;
+import fullthrottle.ui.ProgressBar;
+import fullthrottle.util.Input;
+import fullthrottle.util.TimeManager;
+
+/**
+ * Plays a seeded game for a set number of frames, drawing each one
+ * into an offscreen RenderTexture, and checks a hash of every frame
+ * against the hashes recorded by an earlier run, so a change to how
+ * things are drawn can be checked to give exactly the same pixels
+ * Every few frames the image is saved too, mismatching frames are
+ * compared against these to show how many pixels changed
+ * Also records how long each frame took to draw
+ * Usage (after compiling, from the root directory):
+ *     java -cp out:lib/jsfml.jar fullthrottle.GoldenImageRunner --record
+ *     java -cp out:lib/jsfml.jar fullthrottle.GoldenImageRunner
+ * NB: needs the native libraries and a graphics context, but no window
+ */
+public final class GoldenImageRunner {
+    public static final int DEFAULT_FRAMES = 600;
+    /**
+     * A reference image is saved every this many frames
+     */
+    public static final int DEFAULT_IMAGE_INTERVAL = 60;
+    public static final long DEFAULT_SEED = 210;
+    /**
+     * Every frame is simulated as if it took exactly this long
+     */
+    public static final float FRAME_TIME = 1 / 60f;
+
+    public static final String DEFAULT_DIRECTORY = "./golden";
+    private static final String HASH_FILE = "hashes.txt";
+
+    private final RenderTexture texture;
+    private final Road road;
+    private final Player player;
+    private final ProgressBar fuelBar;
+    private final ParallaxBackground background;
+    private final GameManager gameManager;
+
+    private final FrameTimeHistogram renderTimes = new FrameTimeHistogram();
+
+    /**
+     * Creates the game objects and the texture frames are drawn to
+     * @throws TextureCreationException if the texture can't be made
+     */
+    public GoldenImageRunner() throws TextureCreationException {
+        texture = new RenderTexture();
+        texture.create(FullThrottle.WINDOW_WIDTH, FullThrottle.WINDOW_HEIGHT);
+
+        background = new ParallaxBackground(texture, Direction.LEFT, 3000);
+        TextureRegion sky = TextureAtlas.getRegion("./res/BackgroundTest/Sky.png");
+        TextureRegion buildings = TextureAtlas.getRegion("./res/BackgroundTest/Buildings.png");
+        Sprite skyS = sky.createSprite();
+        skyS.scale(2.8125f, 2.8125f);
+        Sprite buildingsS = buildings.createSprite();
+        buildingsS.scale(2.8125f, 2.8125f);
+        background.addElement(skyS, 30, Vector2f.ZERO);
+        background.addElement(buildingsS, 15, Vector2f.ZERO);
+
+        road = new Road(4, 320);
+        road.setSpeed(50);
+
+        fuelBar = new ProgressBar(
+            new Vector2f(10, 10), new Vector2f(256, 64), 100,
+            TextureAtlas.getRegion("./res/FuelBar.png"), new Vector2i(16, 16),
+            80, new float[] {25, 50, 100}
+        );
+
+        player = new Player();
+
+        gameManager = new GameManager(road, player, fuelBar);
+
+        //same layers as the game
+        Renderer.clear();
+        Renderer.addDrawable(background, 1000);
+        Renderer.addDrawable(road);
+        Renderer.addDrawable(fuelBar);
+        Renderer.addDrawable(player, 0);
+    }
+
+    /**
+     * Plays the game from a seed, drawing every frame
+     * @param frames number of frames to draw
+     * @param seed seed for the road
+     * @param listener given each frame once it's been drawn
+     */
+    public void run(int frames, long seed, FrameListener listener) throws IOException {
+        road.setSeed(seed);
+        road.setVisible(true);
+        TimeManager.resetFixedSteps();
+        gameManager.startGame();
+
+        for (int frame = 0; frame < frames; frame++) {
+            TimeManager.update(FRAME_TIME);
+            Input.clearFlags();
+            int steps = TimeManager.fixedSteps();
+            for (int i = 0; i < steps; i++) {
+                TimeManager.beginFixedStep();
+                background.update();
+                fuelBar.update();
+                gameManager.update();
+                TimeManager.endFixedStep();
+                Input.clearStepFlags();
+            }
+            gameManager.frameUpdate();
+            road.record(TimeManager.interpolationAlpha());
+
+            long start = System.nanoTime();
+            texture.clear(Color.BLACK);
+            Renderer.render(texture);
+            texture.display();
+            //reading the pixels back waits for the GPU to finish
+            Image image = texture.getTexture().copyToImage();
+            renderTimes.record((System.nanoTime() - start) / 1000);
+
+            listener.frame(frame, image);
+        }
+    }
+
+    public FrameTimeHistogram getRenderTimes() {
+        return renderTimes;
+    }
+
+    /**
+     * Called with each frame drawn by run()
+     */
+    public interface FrameListener {
+        public void frame(int frame, Image image) throws IOException;
+    }
+
+    /**
+     * @param image image to hash
+     * @return 64 bit FNV-1a hash of every pixel
+     */
+    public static long hash(Image image) {
+        long h = 0xcbf29ce484222325L;
+        for (int p : image.getPixels()) {
+            h ^= p;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * @return number of pixels that differ between two images of the
+     * same size, or -1 if they're different sizes
+     */
+    public static int countDifferences(Image a, Image b) {
+        if (!a.getSize().equals(b.getSize())) return -1;
+
+        int[] pa = a.getPixels();
+        int[] pb = b.getPixels();
+
+        int differences = 0;
+        for (int i = 0; i < pa.length; i++)
+            if (pa[i] != pb[i])
+                differences++;
+        return differences;
+    }
+
+    private static Path imagePath(Path directory, int frame) {
+        return directory.resolve(String.format("frame%05d.png", frame));
+    }
+
+    private static HashMap<Integer, Long> readHashes(Path path) throws IOException {
+        HashMap<Integer, Long> hashes = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split(" ");
+                hashes.put(
+                    Integer.parseInt(parts[0]), Long.parseUnsignedLong(parts[1], 16)
+                );
+            }
+        }
+        return hashes;
+    }
+
+    public static void main(String[] args) {
+        int frames = DEFAULT_FRAMES;
+        int interval = DEFAULT_IMAGE_INTERVAL;
+        long seed = DEFAULT_SEED;
+        Path directory = Paths.get(DEFAULT_DIRECTORY);
+        boolean record = false;
+        for (String arg : args) {
+            if (arg.equals("--record"))
+                record = true;
+            else if (arg.startsWith("--frames="))
+                frames = Integer.parseInt(arg.substring("--frames=".length()));
+            else if (arg.startsWith("--interval="))
+                interval = Integer.parseInt(arg.substring("--interval=".length()));
+            else if (arg.startsWith("--seed="))
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            else if (arg.startsWith("--dir="))
+                directory = Paths.get(arg.substring("--dir=".length()));
+        }
+
+        //quality must be the same every run
+        QualityGovernor.setEnabled(false);
+
+        try {
+            GoldenImageRunner runner = new GoldenImageRunner();
+            int mismatches = record
+                ? record(runner, frames, interval, seed, directory)
+                : check(runner, frames, seed, directory);
+
+            FrameTimeHistogram times = runner.getRenderTimes();
+            System.out.println(String.format(
+                "Render time p50 %.2fms p99 %.2fms max %.2fms",
+                times.getPercentile(50) / 1000f, times.getPercentile(99) / 1000f,
+                times.getMax() / 1000f
+            ));
+            if (mismatches > 0)
+                System.exit(1);
+        } catch (TextureCreationException | IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static int record(
+        GoldenImageRunner runner, int frames, int interval, long seed, Path directory
+    ) throws IOException {
+        Files.createDirectories(directory);
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(HASH_FILE))) {
+            writer.write("# Generated by GoldenImageRunner: frame hash, seed " + seed);
+            writer.newLine();
+            runner.run(frames, seed, (frame, image) -> {
+                writer.write(frame + " " + Long.toHexString(hash(image)));
+                writer.newLine();
+                if (frame % interval == 0)
+                    image.saveToFile(imagePath(directory, frame));
+            });
+        }
+        System.out.println("Recorded " + frames + " frames to " + directory);
+        return 0;
+    }
+
+    private static int check(
+        GoldenImageRunner runner, int frames, long seed, Path directory
+    ) throws IOException {
+        HashMap<Integer, Long> expected;
+        try {
+            expected = readHashes(directory.resolve(HASH_FILE));
+        } catch (NoSuchFileException e) {
+            System.err.println("No reference frames in " + directory + ", run with --record first");
+            return 1;
+        }
+
+        int[] mismatches = {0};
+        runner.run(frames, seed, (frame, image) -> {
+            Long hash = expected.get(frame);
+            if (hash == null || hash == hash(image)) return;
+
+            mismatches[0]++;
+            Path reference = imagePath(directory, frame);
+            if (!Files.exists(reference)) {
+                System.out.println("Frame " + frame + " differs");
+                return;
+            }
+            Image expectedImage = new Image();
+            expectedImage.loadFromFile(reference);
+            Path actual = directory.resolve(String.format("frame%05d-actual.png", frame));
+            image.saveToFile(actual);
+            System.out.println(
+                "Frame " + frame + " differs in " +
+                countDifferences(expectedImage, image) + " pixels, saved " + actual
+            );
+        });
+
+        System.out.println(
+            (frames - mismatches[0]) + "/" + frames + " frames match " + directory
+        );
+        return mismatches[0];
+    }
+}
@@ -0,0 +1,216 @@
+package fullthrottle;
+
+import java.io.IOException;
+
+import org.jsfml.system.Vector2f;
+import org.jsfml.system.Vector2i;
+import org.jsfml.window.event.Event;
+
+import fullthrottle.debug.Trace;
+import fullthrottle.replay.ReplayCommand;
+import fullthrottle.replay.ReplayPlayer;
+import fullthrottle.ui.ProgressBar;
+import fullthrottle.util.Headless;
+import fullthrottle.util.Input;
+import fullthrottle.util.StepQueue;
+import fullthrottle.util.TimeManager;
+
+/**
+ * Runs the game simulation without a window, textures or audio,
+ * stepping as fast as the CPU allows and reporting how many
+ * simulated frames were processed per second
+ */
+public final class HeadlessRunner {
+    public static final int DEFAULT_RUNS = 100;
+    /**
+     * Longest a single run can last, in simulated seconds
+     */
+    public static final float DEFAULT_MAX_RUN_TIME = 600;
+
+    private Road road;
+    private Player player;
+    private ProgressBar fuelBar;
+    private GameManager gameManager;
+
+    private long frames;
+
+    /**
+     * Creates the simulated game objects, headless mode
+     * must already be enabled
+     */
+    public HeadlessRunner() {
+        road = new Road(4, 320);
+        road.setSpeed(50);
+
+        fuelBar = new ProgressBar(
+            new Vector2f(10, 10), new Vector2f(256, 64), 100,
+            null, new Vector2i(16, 16),
+            80, new float[] {25, 50, 100}
+        );
+
+        player = new Player();
+
+        gameManager = new GameManager(road, player, fuelBar);
+    }
+
+    /**
+     * Runs one simulation step of everything the game would update
+     */
+    public void tick() {
+        TimeManager.beginFixedStep();
+        fuelBar.update();
+        gameManager.update();
+        TimeManager.endFixedStep();
+        Input.clearStepFlags();
+        frames++;
+    }
+
+    /**
+     * Plays one game from start until game over
+     * @param maxTime longest the run can last in simulated seconds
+     * @return number of frames simulated
+     */
+    public long run(float maxTime) {
+        if (gameManager.isGameOver())
+            gameManager.playAgain();
+        else
+            gameManager.startGame();
+
+        long maxFrames = (long)(maxTime / TimeManager.FIXED_TIMESTEP);
+        long start = frames;
+        long runStart = Trace.now();
+        while (!gameManager.isGameOver() && frames - start < maxFrames)
+            tick();
+        Trace.complete("Run", "frame", runStart);
+
+        return frames - start;
+    }
+
+    /**
+     * Plays back a replay recorded in the game, frame for frame
+     * Should be used on a newly created HeadlessRunner so the game
+     * starts in the same state it was recorded from
+     * @param replay replay to play back
+     * @return number of frames simulated
+     * @throws IOException if the replay can't be read
+     */
+    public long replay(ReplayPlayer replay) throws IOException {
+        road.setSeed(replay.getSeed());
+        TimeManager.resetFixedSteps();
+
+        StepQueue<Event> events = new StepQueue<>();
+        StepQueue<ReplayCommand> commands = new StepQueue<>();
+        ReplayPlayer.Handler handler = new ReplayPlayer.Handler() {
+            @Override
+            public void event(Event e, int step) {
+                events.add(e, 0, step);
+            }
+
+            @Override
+            public void command(ReplayCommand c, int step) {
+                commands.add(c, 0, step);
+            }
+        };
+        StepQueue.Handler<Event> eventHandler = (e, step) -> {
+            if (e.asMouseButtonEvent() != null)
+                Input.mouseEvent(e);
+            if (e.asKeyEvent() != null)
+                Input.keyEvent(e);
+        };
+        //there are no buttons headless so do what they did
+        StepQueue.Handler<ReplayCommand> commandHandler = (c, step) -> {
+            if (c == ReplayCommand.START_GAME)
+                gameManager.startGame();
+            else if (c == ReplayCommand.PLAY_AGAIN)
+                gameManager.playAgain();
+            else if (c == ReplayCommand.MAIN_MENU)
+                gameManager.mainMenu();
+        };
+
+        long start = frames;
+        float frameTime;
+        while ((frameTime = replay.nextFrame()) >= 0) {
+            long frameStart = Trace.now();
+            TimeManager.update(frameTime);
+            Input.clearFlags();
+            events.clear();
+            commands.clear();
+            replay.playEvents(handler);
+
+            int steps = TimeManager.fixedSteps();
+            for (int i = 0; i < steps; i++) {
+                events.handleUntil(i, eventHandler);
+                commands.handleUntil(i, commandHandler);
+                tick();
+            }
+            events.handleRemaining(eventHandler);
+            commands.handleRemaining(commandHandler);
+            gameManager.frameUpdate();
+            Trace.complete("Frame", "frame", frameStart);
+        }
+
+        return frames - start;
+    }
+
+    public GameManager getGameManager() {
+        return gameManager;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public static void main(String[] args) {
+        int runs = DEFAULT_RUNS;
+        float maxTime = DEFAULT_MAX_RUN_TIME;
+        String replayPath = null;
+        for (String arg : args) {
+            if (arg.startsWith("--runs="))
+                runs = Integer.parseInt(arg.substring("--runs=".length()));
+            else if (arg.startsWith("--max-time="))
+                maxTime = Float.parseFloat(arg.substring("--max-time=".length()));
+            else if (arg.startsWith("--replay="))
+                replayPath = arg.substring("--replay=".length());
+            else if (arg.startsWith("--trace="))
+                FullThrottle.startTrace(arg.substring("--trace=".length()));
+        }
+
+        Headless.enable();
+        HeadlessRunner runner = new HeadlessRunner();
+
+        if (replayPath != null) {
+            try {
+                ReplayPlayer replay = new ReplayPlayer(replayPath);
+                long start = System.nanoTime();
+                long steps = runner.replay(replay);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.println(
+                    "Replayed " + replay.getFrames() + " frames (" + steps +
+                    " simulation steps) in " + String.format("%.3f", seconds) +
+                    "s, score " + (int)runner.getGameManager().getScore()
+                );
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            long runFrames = runner.run(maxTime);
+            System.out.println(
+                "Run " + (i + 1) + ": " + runFrames + " frames, score " +
+                (int)runner.getGameManager().getScore()
+            );
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long frames = runner.getFrames();
+        System.out.println(
+            runs + " runs, " + frames + " frames in " +
+            String.format("%.2f", seconds) + "s (" +
+            (long)(frames / seconds) + " simulated frames per second)"
+        );
+    }
+}
@@ -9,21 +9,24 @@ import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 
 import fullthrottle.gfx.Animation;
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.Batchable;
 import fullthrottle.gfx.SpriteSequence;
+import fullthrottle.gfx.SpriteBatch;
 import fullthrottle.gfx.Spritesheet;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.util.Headless;
 
-public final class HealthManager implements Drawable {
+public final class HealthManager implements Drawable, Batchable {
     
     public static int STARTING_MAX_HEALTH = 5;
 
     private int maxHealth;
     private int currentHealth;
 
-    private static class Heart implements Drawable {
+    private static class Heart implements Drawable, Batchable {
         private static SpriteSequence HEART_SEQ = new SpriteSequence(
             new Spritesheet(
-                new FTTexture("./res/Heart.png"),
+                TextureAtlas.getRegion("./res/Heart.png"),
                 new Vector2i(32, 32)
             )
         );
@@ -62,6 +65,11 @@ public final class HealthManager implements Drawable {
 
         @Override
         public void draw(RenderTarget t, RenderStates s) {
+            SpriteBatch.drawNow(this, t, s);
+        }
+
+        @Override
+        public void batch(SpriteBatch batch, RenderStates s) {
             anim.setPosition(position);
             if (anim.getGlobalBounds().height != this.size.y) {
                 anim.setScale(new Vector2f(1, 1));
@@ -74,7 +82,7 @@ public final class HealthManager implements Drawable {
                 );
                 anim.setScale(this.scale);
             }
-            anim.draw(t, s);
+            batch.draw(anim, s);
         }
     }
 
@@ -98,21 +106,24 @@ public final class HealthManager implements Drawable {
         Vector2f drawPos = new Vector2f(this.position.x + width, this.position.y);
         maxHealth++;
         currentHealth++;
-        Heart h = new Heart(drawPos, new Vector2f(height, height));
         width += height;
+        if (Headless.isEnabled()) return;
+        Heart h = new Heart(drawPos, new Vector2f(height, height));
         hearts.add(h);
         hearts.get(currentHealth - 1).add();
     }
 
     public int removeHealth() {
         currentHealth--;
-        hearts.get(currentHealth).remove();
+        if (currentHealth < hearts.size())
+            hearts.get(currentHealth).remove();
         return currentHealth;
     }
 
     public void addHealth() {
-        if (currentHealth > hearts.size() - 1) return;
-        hearts.get(currentHealth).add();
+        if (currentHealth > maxHealth - 1) return;
+        if (currentHealth < hearts.size())
+            hearts.get(currentHealth).add();
         currentHealth ++;
     }
 
@@ -122,6 +133,11 @@ public final class HealthManager implements Drawable {
 
         width = 0;
         hearts = new ArrayList<>();
+        //hearts are only needed for drawing
+        if (Headless.isEnabled()) {
+            width = maxHealth * height;
+            return;
+        }
         Vector2f drawPos = position;
         Vector2f size = new Vector2f(height, height);
         for (int i = 0; i < maxHealth; i++) {
@@ -135,8 +151,13 @@ public final class HealthManager implements Drawable {
 
     @Override
     public void draw(RenderTarget arg0, RenderStates arg1) {
+        SpriteBatch.drawNow(this, arg0, arg1);
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates states) {
         for (Heart h : hearts) {
-            h.draw(arg0, arg1);
+            h.batch(batch, states);
         }
     }
 
@@ -0,0 +1,145 @@
+package fullthrottle;
+
+import java.util.Arrays;
+
+import org.jsfml.graphics.FloatRect;
+
+/**
+ * Things moving along the lanes of the road, stored as arrays of
+ * their fields for each lane rather than as objects, so they can
+ * be moved, removed and recorded without creating any garbage
+ * Each lane keeps its entities in the order they were added, i.e.
+ * left to right, and removing one shifts the rest down rather than
+ * swapping in the last one, so that order is never lost
+ */
+public abstract class LaneEntities {
+    private static final int INITIAL_CAPACITY = 8;
+
+    protected final float scale;
+
+    protected final int[] counts;
+    protected float[][] x;
+    protected float[][] previousX;
+    protected float[][] y;
+
+    /**
+     * @param lanes number of lanes on the road
+     * @param scale scale every entity is drawn at
+     */
+    protected LaneEntities(int lanes, float scale) {
+        this.scale = scale;
+        counts = new int[lanes];
+        x = new float[lanes][INITIAL_CAPACITY];
+        previousX = new float[lanes][INITIAL_CAPACITY];
+        y = new float[lanes][INITIAL_CAPACITY];
+    }
+
+    /**
+     * Copy the extra fields of an entity to another
+     * slot in the same lane, called by move()
+     */
+    protected abstract void copyFields(int lane, int from, int to);
+
+    /**
+     * Resize the arrays of a lane's extra fields
+     * @param capacity new number of entities the lane can hold
+     */
+    protected abstract void grow(int lane, int capacity);
+
+    /**
+     * Make room for a new entity at the end of a lane
+     * @return index of the new entity
+     */
+    protected int append(int lane, float newX, float newY) {
+        int i = counts[lane];
+        if (i == x[lane].length) {
+            int capacity = i * 2;
+            x[lane] = Arrays.copyOf(x[lane], capacity);
+            previousX[lane] = Arrays.copyOf(previousX[lane], capacity);
+            y[lane] = Arrays.copyOf(y[lane], capacity);
+            grow(lane, capacity);
+        }
+        x[lane][i] = newX;
+        previousX[lane][i] = newX;
+        y[lane][i] = newY;
+        counts[lane]++;
+        return i;
+    }
+
+    /**
+     * Copy an entity to another slot in the same lane
+     */
+    protected void move(int lane, int from, int to) {
+        x[lane][to] = x[lane][from];
+        previousX[lane][to] = previousX[lane][from];
+        y[lane][to] = y[lane][from];
+        copyFields(lane, from, to);
+    }
+
+    /**
+     * Remove an entity, moving the ones after it down a slot
+     */
+    public void remove(int lane, int i) {
+        for (int j = i + 1; j < counts[lane]; j++)
+            move(lane, j, j - 1);
+        counts[lane]--;
+    }
+
+    /**
+     * Stores the current positions to interpolate from,
+     * called at the start of each simulation step
+     */
+    public void savePreviousState() {
+        for (int lane = 0; lane < counts.length; lane++)
+            System.arraycopy(x[lane], 0, previousX[lane], 0, counts[lane]);
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    /**
+     * @return number of entities across every lane
+     */
+    public int size() {
+        int size = 0;
+        for (int c : counts)
+            size += c;
+        return size;
+    }
+
+    public int size(int lane) {
+        return counts[lane];
+    }
+
+    public float getX(int lane, int i) {
+        return x[lane][i];
+    }
+
+    public float getY(int lane, int i) {
+        return y[lane][i];
+    }
+
+    /**
+     * @param alpha how far to interpolate from the previous
+     * simulation step to the current one (0-1)
+     * @return x of an entity to draw it at
+     */
+    protected float getDrawX(int lane, int i, float alpha) {
+        float p = previousX[lane][i];
+        return p + (x[lane][i] - p) * alpha;
+    }
+
+    /**
+     * Check whether a hit box, given in unscaled sprite
+     * coordinates, of an entity overlaps a rectangle
+     */
+    protected boolean intersects(int lane, int i, FloatRect hitBox, FloatRect other) {
+        float left = hitBox.left * scale + x[lane][i];
+        float top = hitBox.top * scale + y[lane][i];
+        return left < other.left + other.width
+            && other.left < left + hitBox.width * scale
+            && top < other.top + other.height
+            && other.top < top + hitBox.height * scale;
+    }
+}
@@ -11,14 +11,15 @@ import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.RenderTarget;
 import org.jsfml.graphics.Sprite;
 import org.jsfml.graphics.Text;
-import org.jsfml.graphics.Texture;
 import org.jsfml.graphics.Vertex;
 import org.jsfml.graphics.VertexArray;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 
 import fullthrottle.sfx.FTMusic;
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.gfx.TextureRegion;
+import fullthrottle.gfx.SpriteBatch;
 import fullthrottle.ui.Button;
 import fullthrottle.ui.Button.ActionType;
 import fullthrottle.ui.ButtonManager;
@@ -29,22 +30,26 @@ import fullthrottle.util.HighScoreManager;
 import fullthrottle.util.HighScoreManager.HighScore;
 
 public final class LeaderBoard extends UISprite {
-    private static Texture LEADERBOARD_TEXTURE = new FTTexture(
+    private static TextureRegion LEADERBOARD_TEXTURE = TextureAtlas.getRegion(
         "./res/Leaderboard.png"
     );
 
     public static final int LEADERBOARD_LENGTH = 5;
 
-    private List<HighScore> scores;
+    private volatile List<HighScore> scores;
+    /**
+     * Whether the scores have been reloaded since they were last drawn
+     */
+    private volatile boolean scoresChanged;
 
     private Button closeButton;
 
     private VertexArray overlay;
 
-    private Texture crowns;
+    private TextureRegion crowns;
 
     private Color textColor;
-    private ArrayList<Text> texts;
+    private volatile ArrayList<Text> texts;
 
     private float scale;
 
@@ -84,7 +89,7 @@ public final class LeaderBoard extends UISprite {
         closeButton = new Button(
             Vector2f.sub(pos, new Vector2f(-(width - 24), 24)),
             new Vector2i(48, 48),
-            new Sprite(new FTTexture("./res/CloseButton.png")),
+            TextureAtlas.getRegion("./res/CloseButton.png").createSprite(),
             SpriteFillMode.STRETCH
         );
         closeButton.addAction(this, "closeLeaderBoard", ActionType.LEFT_CLICK);
@@ -100,12 +105,14 @@ public final class LeaderBoard extends UISprite {
         overlay.add(new Vertex(new Vector2f(FullThrottle.WINDOW_WIDTH, FullThrottle.WINDOW_HEIGHT), overlayColor1));
         overlay.add(new Vertex(new Vector2f(0, FullThrottle.WINDOW_HEIGHT), overlayColor1));
 
-        crowns = new FTTexture("./res/Crowns.png");
+        crowns = TextureAtlas.getRegion("./res/Crowns.png");
     }
 
     public void loadScores() {
-        texts.clear();
-        scores = HighScoreManager.getHighScores(LEADERBOARD_LENGTH);
+        //build new lists and swap them in so a draw on another
+        //thread never sees them half filled
+        ArrayList<Text> texts = new ArrayList<>();
+        List<HighScore> scores = HighScoreManager.getHighScores(LEADERBOARD_LENGTH);
 
         for (int i = 0; i < scores.size(); i++) {
             int boxHeight = (int)(32 * scale);
@@ -117,12 +124,21 @@ public final class LeaderBoard extends UISprite {
             t.setPosition(drawPos);
             texts.add(t);
         }
+
+        this.texts = texts;
+        this.scores = scores;
+        scoresChanged = true;
     }
 
     public void addCloseCallback(Object o, String m, ActionType t) {
         closeButton.addAction(o, m, t);
     }
 
+    @Override
+    public boolean isDirty() {
+        return super.isDirty() || scoresChanged || closeButton.isDirty();
+    }
+
     public void disableCloseButton() {
         closeButton.setEnabled(false);
     }
@@ -139,15 +155,25 @@ public final class LeaderBoard extends UISprite {
 
     @Override
     public void draw(RenderTarget target, RenderStates rs) {
-        if (!isVisible()) return;
-        if (scores == null) loadScores();
+        SpriteBatch.drawNow(this, target, rs);
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates rs) {
+        scoresChanged = false;
+        if (!isVisible()) {
+            markDrawn();
+            return;
+        }
+        if (this.scores == null) loadScores();
+        List<HighScore> scores = this.scores;
 
-        overlay.draw(target, rs);
-        super.draw(target, rs);
-        closeButton.draw(target, rs);
+        batch.addVertices(overlay, rs);
+        super.batch(batch, rs);
+        batch.draw(closeButton, rs);
 
         for (Text t : texts)
-            t.draw(target, rs);
+            batch.draw(t, rs);
 
         if (scores.size() == 0) return;
 
@@ -171,10 +197,10 @@ public final class LeaderBoard extends UISprite {
                 position = 3;
             else continue;
 
-            Sprite crown = new Sprite(crowns, new IntRect(new Vector2i(0, 32 * (position - 1)), new Vector2i(32, 32)));
+            Sprite crown = crowns.createSprite(new IntRect(new Vector2i(0, 32 * (position - 1)), new Vector2i(32, 32)));
             crown.setPosition(Vector2f.sub(textPositions[i], new Vector2f(32 * scale, 0)));
             crown.scale(scale, scale);
-            crown.draw(target, rs);
+            batch.addSprite(crown, rs);
         }
     }
 
@@ -4,32 +4,26 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 import org.jsfml.graphics.FloatRect;
-import org.jsfml.graphics.PrimitiveType;
-import org.jsfml.graphics.Texture;
-import org.jsfml.graphics.Vertex;
-import org.jsfml.graphics.VertexArray;
 import org.jsfml.system.Vector2f;
-import org.jsfml.system.Vector2i;
 
 import fullthrottle.Road.RoadSection;
-import fullthrottle.gfx.FTTexture;
-import fullthrottle.gfx.SpriteSequence;
-import fullthrottle.gfx.Spritesheet;
-import fullthrottle.util.TimeManager;
-
-public class Obstacle {
-    public static Texture OBSTACLE_SPRITE_SHEET = new FTTexture("./res/Obstacles.png");
+import fullthrottle.gfx.TextureLoader;
+import fullthrottle.gfx.TextureRegion;
+
+/**
+ * The spritesheet and types of obstacles, the obstacles on the road
+ * are stored by ObstacleLanes
+ * This is a static class and shouldn't be instantiated
+ */
+public final class Obstacle {
+    public static TextureRegion OBSTACLE_SPRITE_SHEET = TextureLoader.loadRegion("./res/Obstacles.png");
     public static Vector2f OBSTACLE_SPRITE_SIZE = new Vector2f(32, 32);
-    public static Texture OBSTACLE_EXPLOSION_TEXTURE = new FTTexture("./res/Explosion.png");
-    public static Spritesheet OBSTACLE_EXPLOSION_SHEET = new Spritesheet(OBSTACLE_EXPLOSION_TEXTURE, new Vector2i(32, 32));
-    public static SpriteSequence OBSTACLE_EXPLOSION_SEQUENCE = new SpriteSequence(OBSTACLE_EXPLOSION_SHEET);
+    public static TextureRegion OBSTACLE_EXPLOSION_TEXTURE = TextureLoader.loadRegion("./res/Explosion.png");
 
-    private static Vector2f[] OBSTACLE_QUAD_OFFSETS = new Vector2f[] {
-        Vector2f.ZERO,
-        new Vector2f(OBSTACLE_SPRITE_SIZE.x, 0),
-        OBSTACLE_SPRITE_SIZE,
-        new Vector2f(0, OBSTACLE_SPRITE_SIZE.y)
-    };
+    /**
+     * Position of the spritesheet within the loaded texture
+     */
+    static final Vector2f OBSTACLE_SHEET_OFFSET = TextureRegion.offsetOf(OBSTACLE_SPRITE_SHEET);
 
     public enum ObstacleType {
         CAR_1(0, 2, 10, 120, new FloatRect(1, 11, 30, 13), new RoadSection[] {RoadSection.YELLOW}),
@@ -92,96 +86,7 @@ public class Obstacle {
         }
     }
 
-    private ObstacleType type;
-
-    private Vector2f position;
-
-    private float scale;
-
-    private int frameCount;
-    private int currentFrame;
-    private float timeToNextFrame;
-    private float currentTimeToNextFrame;
-
-    public Obstacle(ObstacleType t, Vector2f pos, float scale) {
-        this.type = t;
-        
-        this.frameCount = t.frames;
-        this.currentFrame = 0;
-        this.timeToNextFrame = 1f / ((type.fps != 0) ? type.fps : 1);
-        this.currentTimeToNextFrame = timeToNextFrame;
-
-        this.position = pos;
-        this.scale = scale;
-    }
-    
-    public Vector2f move(float dXPos) {
-        dXPos += type.moveSpeed * TimeManager.deltaTime();
-        position = Vector2f.sub(position, new Vector2f(dXPos, 0));
-        
-        // return position.x + (OBSTACLE_SPRITE_SIZE.x * scale) > 0;
-        return position;
-    }
-
-    public Vector2f getPosition() {
-        return position;
-    }
-
-    public void setPosition(Vector2f position) {
-        this.position = position;
-    }
-
-    public Vector2f getSize() {
-        return Vector2f.mul(OBSTACLE_SPRITE_SIZE, scale);
-    }
-
-    public boolean isOnScreen() {
-        return getPosition().x + getSize().x > 0;
-    }
-
-    public VertexArray getVertexArray() {
-        Vector2f spritePos = new Vector2f(
-            0,
-            OBSTACLE_SPRITE_SIZE.y * type.obstacleIndex
-        );
-        if (frameCount != 1) {
-            currentTimeToNextFrame -= TimeManager.deltaTime();
-            if (currentTimeToNextFrame <= 0) {
-                currentFrame++;
-                currentTimeToNextFrame += timeToNextFrame;
-            }
-            currentFrame %= frameCount;
-            spritePos = Vector2f.componentwiseMul(
-                OBSTACLE_SPRITE_SIZE,
-                new Vector2f(currentFrame, type.obstacleIndex)
-            );
-        }
-
-        VertexArray va = new VertexArray(PrimitiveType.QUADS);
-        
-        for (int i = 0; i < 4; i++) {
-            Vertex v = new Vertex(
-                Vector2f.add(
-                    position,
-                    Vector2f.mul(OBSTACLE_QUAD_OFFSETS[i], scale)
-                ),
-                Vector2f.add(spritePos, OBSTACLE_QUAD_OFFSETS[i])
-            );
-            va.add(v);
-        }
-
-        return va;
-    }
-
-    public boolean intersects(FloatRect other) {
-        FloatRect obstacleHitBox = new FloatRect(
-            type.hitBox.left * scale + position.x,
-            type.hitBox.top * scale + position.y,
-            type.hitBox.width * scale,
-            type.hitBox.height * scale
-        );
-        boolean intersects = obstacleHitBox.intersection(other) != null;
+    private Obstacle() {
 
-        return intersects;
     }
 }
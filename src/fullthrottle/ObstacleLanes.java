@@ -0,0 +1,154 @@
+package fullthrottle;
+
+import java.util.Arrays;
+
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.FloatRect;
+
+import fullthrottle.Obstacle.ObstacleType;
+import fullthrottle.gfx.QualityGovernor;
+import fullthrottle.gfx.RenderCommandBuffer;
+import fullthrottle.util.TimeManager;
+
+/**
+ * The obstacles on each lane of the road, with the animation frame
+ * and time until the next frame of each as well as its position
+ */
+public final class ObstacleLanes extends LaneEntities {
+    private ObstacleType[][] types;
+    private int[][] frames;
+    private float[][] timers;
+
+    /**
+     * @param lanes number of lanes on the road
+     * @param scale scale every obstacle is drawn at
+     */
+    public ObstacleLanes(int lanes, float scale) {
+        super(lanes, scale);
+        types = new ObstacleType[lanes][x[0].length];
+        frames = new int[lanes][x[0].length];
+        timers = new float[lanes][x[0].length];
+    }
+
+    /**
+     * Add an obstacle to the right of the others in its lane
+     */
+    public void add(int lane, ObstacleType type, float newX, float newY) {
+        int i = append(lane, newX, newY);
+        types[lane][i] = type;
+        frames[lane][i] = 0;
+        timers[lane][i] = timePerFrame(type);
+    }
+
+    public ObstacleType getType(int lane, int i) {
+        return types[lane][i];
+    }
+
+    public float getWidth() {
+        return Obstacle.OBSTACLE_SPRITE_SIZE.x * scale;
+    }
+
+    public float getHeight() {
+        return Obstacle.OBSTACLE_SPRITE_SIZE.y * scale;
+    }
+
+    /**
+     * Move every obstacle left by the road's movement plus its own
+     * speed and animate it, then push apart any that have caught up
+     * with the one in front and remove any that are off screen
+     * @param dX distance the road moved this step
+     */
+    public void update(float dX) {
+        float deltaTime = TimeManager.game().deltaTime();
+        float rate = 1;
+        if (QualityGovernor.atLeast(QualityGovernor.Level.SLOWER_ANIMATIONS))
+            rate = QualityGovernor.REDUCED_ANIMATION_RATE;
+        float width = getWidth();
+
+        for (int lane = 0; lane < counts.length; lane++) {
+            float[] xs = x[lane];
+            float currentX = Float.NEGATIVE_INFINITY;
+            int kept = 0;
+            for (int i = 0; i < counts[lane]; i++) {
+                ObstacleType type = types[lane][i];
+                float movedX = xs[i] - (dX + type.moveSpeed * deltaTime);
+                xs[i] = Math.max(movedX, currentX + width / 2);
+                currentX = movedX + width;
+                animate(lane, i, deltaTime * rate);
+
+                if (xs[i] + width > 0) {
+                    if (kept != i)
+                        move(lane, i, kept);
+                    kept++;
+                }
+            }
+            counts[lane] = kept;
+        }
+    }
+
+    private void animate(int lane, int i, float deltaTime) {
+        int frameCount = types[lane][i].frames;
+        if (frameCount == 1) return;
+
+        timers[lane][i] -= deltaTime;
+        if (timers[lane][i] <= 0) {
+            frames[lane][i]++;
+            timers[lane][i] += timePerFrame(types[lane][i]);
+        }
+        frames[lane][i] %= frameCount;
+    }
+
+    private static float timePerFrame(ObstacleType type) {
+        return 1f / ((type.fps != 0) ? type.fps : 1);
+    }
+
+    /**
+     * @return index of the first obstacle in the lane whose
+     * hit box overlaps the bounds, or -1 if there isn't one
+     */
+    public int findIntersecting(int lane, FloatRect bounds) {
+        for (int i = 0; i < counts[lane]; i++)
+            if (intersects(lane, i, types[lane][i].hitBox, bounds))
+                return i;
+        return -1;
+    }
+
+    /**
+     * Records a quad for every obstacle, lane by lane
+     * @param buffer buffer to record into
+     * @param alpha how far to interpolate from the previous
+     * simulation step to the current one (0-1)
+     */
+    public void record(RenderCommandBuffer buffer, float alpha) {
+        float width = getWidth();
+        float height = getHeight();
+        for (int lane = 0; lane < counts.length; lane++) {
+            for (int i = 0; i < counts[lane]; i++) {
+                buffer.addQuad(
+                    Obstacle.OBSTACLE_SPRITE_SHEET.getTexture(),
+                    getDrawX(lane, i, alpha), y[lane][i], width, height,
+                    Obstacle.OBSTACLE_SHEET_OFFSET.x
+                        + Obstacle.OBSTACLE_SPRITE_SIZE.x * frames[lane][i],
+                    Obstacle.OBSTACLE_SHEET_OFFSET.y
+                        + Obstacle.OBSTACLE_SPRITE_SIZE.y * types[lane][i].obstacleIndex,
+                    Obstacle.OBSTACLE_SPRITE_SIZE.x, Obstacle.OBSTACLE_SPRITE_SIZE.y,
+                    Color.WHITE
+                );
+            }
+        }
+    }
+
+    @Override
+    protected void copyFields(int lane, int from, int to) {
+        types[lane][to] = types[lane][from];
+        frames[lane][to] = frames[lane][from];
+        timers[lane][to] = timers[lane][from];
+    }
+
+    @Override
+    protected void grow(int lane, int capacity) {
+        types[lane] = Arrays.copyOf(types[lane], capacity);
+        frames[lane] = Arrays.copyOf(frames[lane], capacity);
+        timers[lane] = Arrays.copyOf(timers[lane], capacity);
+    }
+}
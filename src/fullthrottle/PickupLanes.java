@@ -0,0 +1,112 @@
+package fullthrottle;
+
+import java.util.Arrays;
+
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.FloatRect;
+
+import fullthrottle.Pickup.PickupType;
+import fullthrottle.gfx.RenderCommandBuffer;
+
+/**
+ * The pickups on each lane of the road, which only move with it
+ */
+public final class PickupLanes extends LaneEntities {
+    private PickupType[][] types;
+
+    /**
+     * @param lanes number of lanes on the road
+     * @param scale scale every pickup is drawn at
+     */
+    public PickupLanes(int lanes, float scale) {
+        super(lanes, scale);
+        types = new PickupType[lanes][x[0].length];
+    }
+
+    /**
+     * Add a pickup to the right of the others in its lane
+     */
+    public void add(int lane, PickupType type, float newX, float newY) {
+        int i = append(lane, newX, newY);
+        types[lane][i] = type;
+    }
+
+    public PickupType getType(int lane, int i) {
+        return types[lane][i];
+    }
+
+    public float getWidth() {
+        return Pickup.PICKUP_SPRITE_SIZE.x * scale;
+    }
+
+    public float getHeight() {
+        return Pickup.PICKUP_SPRITE_SIZE.y * scale;
+    }
+
+    /**
+     * Move every pickup left with the road and remove
+     * any that are off screen
+     * @param dX distance the road moved this step
+     */
+    public void update(float dX) {
+        float width = getWidth();
+        for (int lane = 0; lane < counts.length; lane++) {
+            float[] xs = x[lane];
+            int kept = 0;
+            for (int i = 0; i < counts[lane]; i++) {
+                xs[i] -= dX;
+                if (xs[i] + width > 0) {
+                    if (kept != i)
+                        move(lane, i, kept);
+                    kept++;
+                }
+            }
+            counts[lane] = kept;
+        }
+    }
+
+    /**
+     * @return index of the first pickup in the lane whose
+     * hit box overlaps the bounds, or -1 if there isn't one
+     */
+    public int findIntersecting(int lane, FloatRect bounds) {
+        for (int i = 0; i < counts[lane]; i++)
+            if (intersects(lane, i, types[lane][i].hitBox, bounds))
+                return i;
+        return -1;
+    }
+
+    /**
+     * Records a quad for every pickup, lane by lane
+     * @param buffer buffer to record into
+     * @param alpha how far to interpolate from the previous
+     * simulation step to the current one (0-1)
+     */
+    public void record(RenderCommandBuffer buffer, float alpha) {
+        float width = getWidth();
+        float height = getHeight();
+        for (int lane = 0; lane < counts.length; lane++) {
+            for (int i = 0; i < counts[lane]; i++) {
+                buffer.addQuad(
+                    Pickup.PICKUP_SPRITE_SHEET.getTexture(),
+                    getDrawX(lane, i, alpha), y[lane][i], width, height,
+                    Pickup.PICKUP_SHEET_OFFSET.x,
+                    Pickup.PICKUP_SHEET_OFFSET.y
+                        + Pickup.PICKUP_SPRITE_SIZE.y * types[lane][i].index,
+                    Pickup.PICKUP_SPRITE_SIZE.x, Pickup.PICKUP_SPRITE_SIZE.y,
+                    Color.WHITE
+                );
+            }
+        }
+    }
+
+    @Override
+    protected void copyFields(int lane, int from, int to) {
+        types[lane][to] = types[lane][from];
+    }
+
+    @Override
+    protected void grow(int lane, int capacity) {
+        types[lane] = Arrays.copyOf(types[lane], capacity);
+    }
+}
@@ -1,12 +1,12 @@
 package fullthrottle;
 
-import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 
 import fullthrottle.gfx.Animation;
 import fullthrottle.gfx.Animator;
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.gfx.TextureRegion;
 import fullthrottle.gfx.Renderer;
 import fullthrottle.gfx.SpriteSequence;
 import fullthrottle.gfx.Spritesheet;
@@ -22,7 +22,7 @@ public final class PlayButton extends Button {
 
     private void createButton() {
         Vector2i frameSize = new Vector2i(64, 32);
-        Texture source = new FTTexture("./res/PlayButton.png");
+        TextureRegion source = TextureAtlas.getRegion("./res/PlayButton.png");
         Spritesheet sheet = new Spritesheet(source, frameSize);
 
         SpriteSequence idleSequence = new SpriteSequence(sheet, 0, 0);
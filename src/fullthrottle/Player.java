@@ -8,14 +8,22 @@ import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 
 import fullthrottle.gfx.Animation;
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.Batchable;
 import fullthrottle.gfx.SpriteSequence;
+import fullthrottle.gfx.SpriteBatch;
 import fullthrottle.gfx.Spritesheet;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.util.Headless;
 import fullthrottle.util.TimeManager;
 
-public class Player implements Drawable {
+public class Player implements Drawable, Batchable {
+    /**
+     * Dimensions of each frame in the car spritesheet
+     */
+    public static final Vector2i PLAYER_SPRITE_SIZE = new Vector2i(32, 32);
 
     private Vector2f position;
+    private Vector2f previousPosition;
 
     private Animation carAnim;
 
@@ -39,20 +47,24 @@ public class Player implements Drawable {
         shifted = false;
         slam = false;
         shiftStart = 0;
-        Spritesheet carSheet = new Spritesheet(
-            new FTTexture("./res/Car.png"),
-            new Vector2i(32, 32)
-        );
         //Sprite sSprite = carSheet.getSprite(0);
         moveSpeed = new Vector2f(120, 150);
         // moveSpeedEW = 150;
         // moveSpeedNS = 150;
         //sSprite.setScale(new Vector2f(2, 2));
 
-        SpriteSequence carSeq = new SpriteSequence(carSheet);
-        carAnim = new Animation(carSeq, 8, true);
-        carAnim.setScale(new Vector2f(scale, scale));
-        carAnim.setPosition(new Vector2f(900, 450));
+        //the car is never drawn when headless
+        if (!Headless.isEnabled()) {
+            Spritesheet carSheet = new Spritesheet(
+                TextureAtlas.getRegion("./res/Car.png"),
+                PLAYER_SPRITE_SIZE
+            );
+            SpriteSequence carSeq = new SpriteSequence(carSheet);
+            carAnim = new Animation(carSeq, 8, true);
+            carAnim.setScale(new Vector2f(scale, scale));
+            carAnim.setTimeDomain(TimeManager.game());
+            carAnim.setPosition(new Vector2f(900, 450));
+        }
 
         bounds = new FloatRect(
             1 * scale,
@@ -64,20 +76,59 @@ public class Player implements Drawable {
 
     public void resetPosition() {
         position = new Vector2f(32, 480);
+        previousPosition = position;
+    }
+
+    /**
+     * Stores the current position to interpolate from,
+     * called at the start of each simulation step
+     */
+    public void savePreviousState() {
+        previousPosition = position;
+    }
+
+    /**
+     * Get the position to draw the car at
+     * @param alpha how far to interpolate from the previous
+     * simulation step to the current one (0-1)
+     * @return interpolated position
+     */
+    public Vector2f getDrawPosition(float alpha) {
+        return new Vector2f(
+            previousPosition.x + (position.x - previousPosition.x) * alpha,
+            previousPosition.y + (position.y - previousPosition.y) * alpha
+        );
     }
 
     @Override
     public void draw(RenderTarget arg0, RenderStates arg1) {
-        if (!bVisible) return;
-        carAnim.setPosition(position);
-        carAnim.draw(arg0, arg1);
+        if (positionCarAnim())
+            carAnim.draw(arg0, arg1);
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates states) {
+        if (positionCarAnim())
+            batch.draw(carAnim, states);
+    }
+
+    /**
+     * Moves the car animation to where the car should be drawn
+     * @return false if the car shouldn't be drawn
+     */
+    private boolean positionCarAnim() {
+        if (!bVisible) return false;
+        carAnim.setPosition(
+            getDrawPosition(TimeManager.interpolationAlpha())
+        );
+        return true;
     }
 
     public void move(Vector2f moveDirection) {
         if (!active) return;
         
         moveDirection = Vector2f.componentwiseMul(moveDirection, moveSpeed);
-        moveDirection = Vector2f.mul(moveDirection, TimeManager.deltaTime());
+        moveDirection = Vector2f.mul(moveDirection, TimeManager.game().deltaTime());
         
         position = Vector2f.add(position, moveDirection);
     }
@@ -127,9 +178,8 @@ public class Player implements Drawable {
     }
 
     public Vector2f getSize() {
-        Vector2f size = new Vector2f(
-            carAnim.getGlobalBounds().width,
-            carAnim.getGlobalBounds().height
+        Vector2f size = Vector2f.mul(
+            new Vector2f(PLAYER_SPRITE_SIZE), scale
         );
         return size;
     }
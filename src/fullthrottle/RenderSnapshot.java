@@ -0,0 +1,95 @@
+package fullthrottle;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import fullthrottle.gfx.DrawList;
+
+/**
+ * Everything drawn in a frame, recorded by the thread running the
+ * simulation and handed to the thread drawing, which replays it
+ * without looking at any game objects, so the two can run at once
+ * There are only ever three snapshots, reused from frame to frame:
+ * one being recorded, one being drawn, and the latest published
+ * between them. Publishing swaps the recorded one with the latest,
+ * and the thread drawing swaps the one it drew with the latest once
+ * a newer one has been published, so a snapshot is never recorded
+ * into while it's drawn
+ */
+public final class RenderSnapshot {
+    private static final AtomicReference<RenderSnapshot> published =
+        new AtomicReference<>(new RenderSnapshot());
+    /**
+     * Sequence of the latest published snapshot
+     */
+    private static volatile long publishedSequence;
+    /**
+     * Snapshot being recorded, only used by the thread recording
+     */
+    private static RenderSnapshot recording = new RenderSnapshot();
+    /**
+     * Snapshot being drawn, only used by the thread drawing
+     */
+    private static RenderSnapshot drawing = new RenderSnapshot();
+    private static long nextSequence = 1;
+
+    public final DrawList drawList = new DrawList();
+
+    /**
+     * Increases by one for every snapshot published,
+     * 0 if nothing has been recorded into it
+     */
+    private long sequence;
+    /**
+     * Capture time of the oldest input handled in the frame
+     * this snapshot was recorded in, 0 if there was none
+     */
+    private long inputTime;
+
+    private RenderSnapshot() {
+
+    }
+
+    /**
+     * Get the snapshot to record the next frame into
+     * NB: must be called from the thread running the simulation
+     * @return snapshot no other thread is using
+     */
+    public static RenderSnapshot recording() {
+        return recording;
+    }
+
+    /**
+     * Make the snapshot returned by recording() the latest
+     * one, replacing whatever was published before
+     * NB: must be called from the thread running the simulation
+     * @param inputTime capture time of the oldest input
+     * handled this frame, 0 if none
+     */
+    public static void publish(long inputTime) {
+        RenderSnapshot s = recording;
+        s.inputTime = inputTime;
+        s.sequence = nextSequence++;
+        recording = published.getAndSet(s);
+        publishedSequence = s.sequence;
+    }
+
+    /**
+     * Get the latest published snapshot, which stays the
+     * caller's to draw until the next call
+     * NB: must be called from the thread drawing
+     * @return latest snapshot, empty if none has been published
+     */
+    public static RenderSnapshot latest() {
+        if (publishedSequence > drawing.sequence)
+            drawing = published.getAndSet(drawing);
+        return drawing;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getInputTime() {
+        return inputTime;
+    }
+}
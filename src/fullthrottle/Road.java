@@ -1,24 +1,31 @@
 package fullthrottle;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Random;
 
+import org.jsfml.graphics.Color;
 import org.jsfml.graphics.Drawable;
 import org.jsfml.graphics.FloatRect;
-import org.jsfml.graphics.PrimitiveType;
 import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.RenderTarget;
-import org.jsfml.graphics.Texture;
+import org.jsfml.graphics.Transform;
 import org.jsfml.graphics.Vertex;
-import org.jsfml.graphics.VertexArray;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 
 import fullthrottle.Obstacle.ObstacleType;
 import fullthrottle.Pickup.PickupType;
+import fullthrottle.debug.Profiler;
+import fullthrottle.debug.Trace;
 import fullthrottle.gfx.Animation;
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.Batchable;
+import fullthrottle.gfx.RenderCommandBuffer;
+import fullthrottle.gfx.SpriteBatch;
+import fullthrottle.gfx.SpriteSequence;
+import fullthrottle.gfx.Spritesheet;
+import fullthrottle.gfx.TextureLoader;
+import fullthrottle.gfx.TextureRegion;
+import fullthrottle.util.Headless;
 import fullthrottle.util.TimeManager;
 import fullthrottle.util.Updatable;
 
@@ -27,7 +34,7 @@ import fullthrottle.util.Updatable;
  * at a variable speed, road type can be changed while running so 
  * only one should be needed
  */
-public final class Road implements Drawable, Updatable {
+public final class Road implements Drawable, Batchable, Updatable {
     private boolean bVisible;
     private boolean generateObstacles;
     /**
@@ -41,7 +48,11 @@ public final class Road implements Drawable, Updatable {
     /**
      * The texture containing the road tiles spritesheet
      */
-    public static Texture ROAD_TEXTURE = new FTTexture("./res/Road.png");
+    public static TextureRegion ROAD_TEXTURE = TextureLoader.loadRegion("./res/Road.png");
+    /**
+     * Position of the road tiles within the loaded texture
+     */
+    private static final Vector2f ROAD_TEXTURE_OFFSET = TextureRegion.offsetOf(ROAD_TEXTURE);
 
     /**
      * Used if no RoadSection is specified on creation
@@ -51,17 +62,50 @@ public final class Road implements Drawable, Updatable {
     public static int MAX_OBSTACLES = 15;
 
     /**
-     * Used to calculate texture coordinates based on
-     * the top left coordinate; vertex order: TL TR BR BL
+     * Number of frames in the explosion spritesheet
+     */
+    public static final int EXPLOSION_FRAMES = 9;
+    /**
+     * Frames per second the explosion plays at
+     */
+    public static final int EXPLOSION_FRAMERATE = 16;
+    /**
+     * Seconds from a crash until the explosion reaches its last frame
+     */
+    public static final float EXPLOSION_LENGTH =
+        (EXPLOSION_FRAMES - 1) / (float)EXPLOSION_FRAMERATE;
+
+    /**
+     * Columns kept beyond those needed to fill the view, enough for
+     * the transition columns added all at once by setRoadSection
      */
-    private static Vector2f[] VERTEX_OFFSETS = new Vector2f[] {
-        Vector2f.ZERO,
-        new Vector2f(ROAD_TILE_DIMENSIONS.x, 0),
-        new Vector2f(ROAD_TILE_DIMENSIONS.x, ROAD_TILE_DIMENSIONS.y),
-        new Vector2f(0, ROAD_TILE_DIMENSIONS.y)
-    };
+    private static final int EXTRA_COLUMNS = 6;
 
-    private ArrayList<TileTexCoords[]> columns;
+    private static final int RECORD_SCOPE = Profiler.register("Road Record");
+
+    /**
+     * Texture coordinates of the top left of every tile, stored as
+     * a ring buffer of columns so scrolling doesn't move anything
+     * Column c's tiles start at c * columnStride, with each tile
+     * taking 2 floats (u, v)
+     */
+    private float[] columnTexCoords;
+    /**
+     * Number of tiles in each column of the ring buffer
+     */
+    private int[] columnTiles;
+    private int columnStride;
+    /**
+     * Vertices of every tile, 4 for each, only written when a column
+     * is generated. The first tile in each row of every column comes
+     * first, so the columns in use are one or two unbroken ranges, then
+     * the second tile in each row that only transition columns have
+     * The column in slot c is built at x = c * tile width, the
+     * scroll position is added by the transform it's drawn with
+     */
+    private Vertex[] tileVertices;
+    private int firstColumn;
+    private int columnCount;
     private int lanes;
 
     private float speed;
@@ -72,12 +116,36 @@ public final class Road implements Drawable, Updatable {
     private Random rand;
 
     private Vector2f origin;
+    private Vector2f previousOrigin;
 
-    private HashMap<Integer, ArrayList<Obstacle>> obstacles;
-    private HashMap<Integer, ArrayList<Pickup>> pickups;
+    private ObstacleLanes obstacles;
+    private PickupLanes pickups;
+    /**
+     * Lanes the player was last found to be touching by findPlayerLanes()
+     */
+    private int firstPlayerLane;
+    private int lastPlayerLane;
 
     private Animation explosion;
 
+    /**
+     * What the road draws, recorded once per frame by record()
+     */
+    private final RenderCommandBuffer commands = new RenderCommandBuffer();
+    /**
+     * Where record() found the tiles should be drawn this frame
+     */
+    private float recordedX;
+    /**
+     * RenderStates the two ranges of tiles were last drawn with,
+     * and the states and x they were made from, so they are only
+     * made again when the road has moved
+     * NB: only used by whichever thread draws the road
+     */
+    private final RenderStates[] tileStates = new RenderStates[2];
+    private final RenderStates[] tileBaseStates = new RenderStates[2];
+    private final float[] tileStatesX = new float[2];
+
     private ArrayList<ObstacleType> currentAllowedObstacles;
 
     private ArrayList<PickupType> pickupTypes;
@@ -109,24 +177,6 @@ public final class Road implements Drawable, Updatable {
         }
     }
 
-    /**
-     * Stores 4 texture coordinates corresponding to each
-     * corner of a tile
-     */
-    private class TileTexCoords {
-        private Vector2f[] points = new Vector2f[4];
-
-        private TileTexCoords (Vector2f topLeft) {
-            for (int i = 0; i < 4; i++) {
-                points[i] = Vector2f.add(topLeft, VERTEX_OFFSETS[i]);
-            }
-        }
-
-        public Vector2f getVertex(int index) {
-            return points[index];
-        }
-    }
-
     /**
      * Creates a road using the default RoadSection
      * @param lanes number of lanes to create the road with
@@ -161,24 +211,54 @@ public final class Road implements Drawable, Updatable {
         this.origin = new Vector2f(
             0, FullThrottle.WINDOW_HEIGHT - height
         );
+        this.previousOrigin = origin;
 
-        columns = new ArrayList<>();
-        obstacles = new HashMap<>();
-        pickups = new HashMap<>();
-        for (int i = 0; i < lanes; i++) {
-            obstacles.put(i, new ArrayList<Obstacle>());
-            pickups.put(i, new ArrayList<Pickup>());
-        }
+        float tileWidth = ROAD_TILE_DIMENSIONS.x * ROAD_TILE_SCALE;
+        int capacity = (int)Math.ceil(FullThrottle.getViewRect().width / tileWidth)
+            + EXTRA_COLUMNS;
+        //transition columns have two tiles in each row
+        columnStride = (lanes + 2) * 2 * 2;
+        columnTexCoords = new float[capacity * columnStride];
+        columnTiles = new int[capacity];
+        tileVertices = new Vertex[capacity * columnStride * 2];
+        firstColumn = 0;
+        columnCount = 0;
+
+        obstacles = new ObstacleLanes(
+            lanes, (ROAD_TILE_SCALE * ROAD_TILE_DIMENSIONS.y) / Obstacle.OBSTACLE_SPRITE_SIZE.y
+        );
+        pickups = new PickupLanes(
+            lanes, (ROAD_TILE_SCALE * ROAD_TILE_DIMENSIONS.y) / Pickup.PICKUP_SPRITE_SIZE.y
+        );
         currentAllowedObstacles = ObstacleType.getObstaclesForSection(rS);
 
-        explosion = new Animation(Obstacle.OBSTACLE_EXPLOSION_SEQUENCE, 16, false);
-        explosion.scale(new Vector2f(ROAD_TILE_SCALE, ROAD_TILE_SCALE));
-        explosion.restart();
-        explosion.pause();
+        //no explosion is drawn when headless so don't create one
+        if (!Headless.isEnabled()) {
+            SpriteSequence explosionSeq = new SpriteSequence(
+                new Spritesheet(
+                    Obstacle.OBSTACLE_EXPLOSION_TEXTURE,
+                    new Vector2i(32, 32)
+                )
+            );
+            explosion = new Animation(explosionSeq, EXPLOSION_FRAMERATE, false);
+            explosion.scale(new Vector2f(ROAD_TILE_SCALE, ROAD_TILE_SCALE));
+            explosion.restart();
+            explosion.pause();
+        }
 
         pickupTypes = PickupType.getAll();
     }
 
+    /**
+     * Restart the random generation of tiles, obstacles and
+     * pickups from a known seed, used when recording or
+     * playing back a replay
+     * @param seed seed for the random number generator
+     */
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+    }
+
     public float getTopEdge() {
         return FullThrottle.WINDOW_HEIGHT - (ROAD_TILE_SCALE * ROAD_TILE_DIMENSIONS.y * (lanes + 1));
     }
@@ -217,12 +297,17 @@ public final class Road implements Drawable, Updatable {
      *      3 = start next
      */
     private void generateColumn(int transition) {
+        long start = Trace.now();
         int size = lanes + 2;
         if (transition == 2)
             size *= 2;
-        TileTexCoords[] nextColumn = new TileTexCoords[size];
 
-        for (int i = 0; i < (lanes + 2) * (transition == 2 ? 2 : 1); i++) {
+        if (columnCount == columnTiles.length)
+            growColumns();
+        int column = (firstColumn + columnCount) % columnTiles.length;
+        int offset = column * columnStride;
+
+        for (int i = 0; i < size; i++) {
             float tileX = roadSection.mainColumn, tileY;
 
             // Set y component of texture coordinate
@@ -260,105 +345,217 @@ public final class Road implements Drawable, Updatable {
                 tileX = roadSection.startColumn;
             }
 
-            Vector2f topLeft = Vector2f.componentwiseMul(
-                new Vector2f(tileX, tileY),
-                new Vector2f(ROAD_TILE_DIMENSIONS)
+            float u = tileX * ROAD_TILE_DIMENSIONS.x + ROAD_TEXTURE_OFFSET.x;
+            float v = tileY * ROAD_TILE_DIMENSIONS.y + ROAD_TEXTURE_OFFSET.y;
+            //the slot's last column may have left the same tile here
+            int t = offset + i * 2;
+            if (i >= columnTiles[column]
+                    || columnTexCoords[t] != u || columnTexCoords[t + 1] != v) {
+                columnTexCoords[t] = u;
+                columnTexCoords[t + 1] = v;
+                setTileVertices(column, i);
+            }
+        }
+
+        columnTiles[column] = size;
+        columnCount++;
+        Trace.complete("Generate Column", "road", start);
+    }
+
+    /**
+     * Builds the vertices of a tile from its texture coordinates
+     * and where its column sits in the ring buffer
+     * @param column slot of the column in the ring buffer
+     * @param tile index of the tile in the column
+     */
+    private void setTileVertices(int column, int tile) {
+        float tileWidth = ROAD_TILE_DIMENSIONS.x * ROAD_TILE_SCALE;
+        float tileHeight = ROAD_TILE_DIMENSIONS.y * ROAD_TILE_SCALE;
+        float x = column * tileWidth;
+        float y = origin.y + (tile % (lanes + 2)) * tileHeight;
+        int t = column * columnStride + tile * 2;
+        float u = columnTexCoords[t];
+        float v = columnTexCoords[t + 1];
+
+        t = tileVertexIndex(column, tile, lanes + 2, columnTiles.length);
+        tileVertices[t] = new Vertex(
+            new Vector2f(x, y), Color.WHITE, new Vector2f(u, v)
+        );
+        tileVertices[t + 1] = new Vertex(
+            new Vector2f(x + tileWidth, y), Color.WHITE,
+            new Vector2f(u + ROAD_TILE_DIMENSIONS.x, v)
+        );
+        tileVertices[t + 2] = new Vertex(
+            new Vector2f(x + tileWidth, y + tileHeight), Color.WHITE,
+            new Vector2f(u + ROAD_TILE_DIMENSIONS.x, v + ROAD_TILE_DIMENSIONS.y)
+        );
+        tileVertices[t + 3] = new Vertex(
+            new Vector2f(x, y + tileHeight), Color.WHITE,
+            new Vector2f(u, v + ROAD_TILE_DIMENSIONS.y)
+        );
+    }
+
+    /**
+     * @param column slot of the column in the ring buffer
+     * @param tile index of the tile in the column
+     * @param rowTiles tiles in a column without a transition
+     * @param capacity number of columns the ring buffer holds
+     * @return index of the tile's first vertex in tileVertices
+     */
+    private static int tileVertexIndex(int column, int tile, int rowTiles, int capacity) {
+        if (tile < rowTiles)
+            return (column * rowTiles + tile) * 4;
+        return ((capacity + column) * rowTiles + tile - rowTiles) * 4;
+    }
+
+    /**
+     * Doubles the size of the column ring buffer, only needed if the
+     * view has become wider since the road was created
+     * Columns that move slot have their vertices built again
+     */
+    private void growColumns() {
+        int capacity = columnTiles.length * 2;
+        float[] texCoords = new float[capacity * columnStride];
+        int[] tiles = new int[capacity];
+        for (int n = 0; n < columnCount; n++) {
+            int c = (firstColumn + n) % columnTiles.length;
+            System.arraycopy(
+                columnTexCoords, c * columnStride,
+                texCoords, n * columnStride, columnStride
             );
+            tiles[n] = columnTiles[c];
+        }
+        columnTexCoords = texCoords;
+        columnTiles = tiles;
+        firstColumn = 0;
+
+        tileVertices = new Vertex[capacity * columnStride * 2];
+        for (int c = 0; c < columnCount; c++) {
+            for (int i = 0; i < columnTiles[c]; i++)
+                setTileVertices(c, i);
+        }
+    }
 
-            nextColumn[i] = new TileTexCoords(topLeft);
+    /**
+     * Draw the columns in use, as at most two ranges of the ring
+     * buffer: from the first column to the end of the ring, then the
+     * columns that have wrapped round to the start, a whole ring's
+     * width further right so they follow on from the last slot
+     * Transition columns then have their second tiles drawn on top
+     */
+    private void batchTiles(SpriteBatch batch, RenderStates states) {
+        int rowTiles = lanes + 2;
+        int capacity = columnTiles.length;
+        float tileWidth = ROAD_TILE_DIMENSIONS.x * ROAD_TILE_SCALE;
+        float x = recordedX - firstColumn * tileWidth;
+        int headColumns = Math.min(columnCount, capacity - firstColumn);
+
+        RenderStates head = getTileStates(0, x, states);
+        RenderStates tail = head;
+        batch.drawVertices(
+            tileVertices, firstColumn * rowTiles * 4,
+            headColumns * rowTiles * 4, head
+        );
+        if (headColumns < columnCount) {
+            tail = getTileStates(1, x + capacity * tileWidth, states);
+            batch.drawVertices(
+                tileVertices, 0,
+                (columnCount - headColumns) * rowTiles * 4, tail
+            );
         }
 
-        columns.add(nextColumn);
+        for (int n = 0; n < columnCount; n++) {
+            int c = (firstColumn + n) % capacity;
+            if (columnTiles[c] > rowTiles) {
+                batch.drawVertices(
+                    tileVertices, tileVertexIndex(c, rowTiles, rowTiles, capacity),
+                    rowTiles * 4, n < headColumns ? head : tail
+                );
+            }
+        }
+    }
+
+    private RenderStates getTileStates(int range, float x, RenderStates states) {
+        if (tileBaseStates[range] != states || tileStatesX[range] != x) {
+            tileStates[range] = new RenderStates(
+                states.blendMode, Transform.translate(states.transform, x, 0),
+                ROAD_TEXTURE.getTexture(), states.shader
+            );
+            tileBaseStates[range] = states;
+            tileStatesX[range] = x;
+        }
+        return tileStates[range];
     }
 
     private void generateObstacle(int column) {
         ObstacleType type = currentAllowedObstacles.get(rand.nextInt(currentAllowedObstacles.size()));
 
-        float scaleFactor = (ROAD_TILE_SCALE * ROAD_TILE_DIMENSIONS.y) / Obstacle.OBSTACLE_SPRITE_SIZE.y;
         int lane = rand.nextInt(lanes);
-        Obstacle o = new Obstacle(type, new Vector2f(column * ROAD_TILE_DIMENSIONS.x * ROAD_TILE_SCALE, getLanePos(lane)), scaleFactor);
-        obstacles.get(lane).add(o);
+        obstacles.add(lane, type, column * ROAD_TILE_DIMENSIONS.x * ROAD_TILE_SCALE, getLanePos(lane));
     }
 
-    private int numObstacles() {
-        int count = 0;
-        for (ArrayList<Obstacle> l : obstacles.values())
-            count += l.size();
-
-        return count;
-
-    }
     private void generatePickup(int column) {
         PickupType type = pickupTypes.get(rand.nextInt(pickupTypes.size()));
 
-        float scaleFactor = (ROAD_TILE_SCALE * ROAD_TILE_DIMENSIONS.y) / Pickup.PICKUP_SPRITE_SIZE.y;
         int lane = rand.nextInt(lanes);
-        Pickup p = new Pickup(type, new Vector2f(column * ROAD_TILE_DIMENSIONS.x * ROAD_TILE_SCALE, getLanePos(lane)), scaleFactor);
-        pickups.get(lane).add(p);
+        pickups.add(lane, type, column * ROAD_TILE_DIMENSIONS.x * ROAD_TILE_SCALE, getLanePos(lane));
     }
 
-    @Override
-    public void draw(RenderTarget arg0, RenderStates arg1) {
-        if (!bVisible) return;
-        Vector2f drawPos = origin;
-        VertexArray va = new VertexArray(PrimitiveType.QUADS);
-        
-        //For each column
-        for (TileTexCoords[] c : columns) {
-            //For each tile in the column
-            for (int t = 0; t < c.length; t++) {
-                if (t == lanes + 2)
-                    drawPos = new Vector2f(drawPos.x, origin.y);
-                //For each point in the tile
-                for (int p = 0; p < 4; p++) {
-                    //Create and add a vertex
-                    Vertex v = new Vertex(
-                        Vector2f.add(drawPos, Vector2f.mul(
-                            VERTEX_OFFSETS[p], ROAD_TILE_SCALE
-                        )),
-                        c[t].getVertex(p)
-                    );
-                    va.add(v);
-                }
-                //Update drawPos to next tile down
-                drawPos = Vector2f.add(
-                    drawPos,
-                    new Vector2f(
-                        0, ROAD_TILE_DIMENSIONS.y * ROAD_TILE_SCALE
-                    )
-                );
-            }
-            //Update drawPos to top of next column
-            drawPos = new Vector2f(
-                drawPos.x + ROAD_TILE_SCALE * ROAD_TILE_DIMENSIONS.x,
-                origin.y
-            );
-        }
+    /**
+     * Stores the current scroll position and the positions of all
+     * obstacles and pickups to interpolate from, called at the start
+     * of each simulation step
+     */
+    public void savePreviousState() {
+        previousOrigin = origin;
+        obstacles.savePreviousState();
+        pickups.savePreviousState();
+    }
 
-        //Add texture to given RenderStates
-        RenderStates rs = new RenderStates(arg1, ROAD_TEXTURE);
-        //Draw VertexArray
-        va.draw(arg0, rs);
-        // System.out.println("Start obst draw");
-        VertexArray obVA = new VertexArray(PrimitiveType.QUADS);
-        RenderStates obRS = new RenderStates(arg1, Obstacle.OBSTACLE_SPRITE_SHEET);
-        for (ArrayList<Obstacle> l : obstacles.values()) {
-            for (Obstacle o : l) {
-                obVA.addAll(o.getVertexArray());
-            }
+    /**
+     * Records what the road draws this frame into its own buffer,
+     * called by the thread running the simulation once the frame
+     * has been simulated, before the frame is recorded
+     * @param alpha how far to interpolate from the previous
+     * simulation step to the current one (0-1)
+     */
+    public void record(float alpha) {
+        Profiler.begin(RECORD_SCOPE);
+        commands.clear();
+        if (bVisible) {
+            recordedX = previousOrigin.x + (origin.x - previousOrigin.x) * alpha;
+            record(commands, alpha);
         }
-        obVA.draw(arg0, obRS);
+        Profiler.end();
+    }
 
-        VertexArray pVA = new VertexArray(PrimitiveType.QUADS);
-        RenderStates pRS = new RenderStates(arg1, Pickup.PICKUP_SPRITE_SHEET);
-        for (ArrayList<Pickup> l : pickups.values())
-            for (Pickup p : l)
-                pVA.addAll(p.getVertexArray());
-        pVA.draw(arg0, pRS);
+    /**
+     * Records the obstacles, then the pickups; the tiles are
+     * drawn straight from their mesh so aren't recorded
+     * @param buffer buffer to record into
+     * @param alpha how far to interpolate from the previous
+     * simulation step to the current one (0-1)
+     */
+    public void record(RenderCommandBuffer buffer, float alpha) {
+        buffer.setKey(0);
+        obstacles.record(buffer, alpha);
 
-        explosion.draw(arg0, arg1);
-        if (explosion.getCurrentFrame() == explosion.getLength() - 1)
-            FullThrottle.getGameManager().play();
+        buffer.setKey(1);
+        pickups.record(buffer, alpha);
+    }
+
+    @Override
+    public void draw(RenderTarget arg0, RenderStates arg1) {
+        SpriteBatch.drawNow(this, arg0, arg1);
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates arg1) {
+        if (!bVisible) return;
+        batchTiles(batch, arg1);
+        commands.replay(batch, arg1);
+
+        batch.draw(explosion, arg1);
     }
 
     @Override
@@ -372,19 +569,19 @@ public final class Road implements Drawable, Updatable {
         //     400, 0, 600, FullThrottle.WINDOW_HEIGHT
         // );
 
-        float dX = speed * TimeManager.deltaTime();
+        float dX = speed * TimeManager.game().deltaTime();
         
         origin = Vector2f.sub(origin, new Vector2f(dX, 0));
 
         float tileWidth = ROAD_TILE_DIMENSIONS.x * ROAD_TILE_SCALE;
-        while ((columns.size() - 1) * tileWidth < vBounds.width) {
+        while ((columnCount - 1) * tileWidth < vBounds.width) {
             generateColumn();
-            if (rand.nextInt(3) == 1 && generateObstacles && numObstacles() < MAX_OBSTACLES){
-                generateObstacle(columns.size());
+            if (rand.nextInt(3) == 1 && generateObstacles && obstacles.size() < MAX_OBSTACLES){
+                generateObstacle(columnCount);
             }
 
             if (rand.nextInt(5) == 1 && generateObstacles) {
-                generatePickup(columns.size());
+                generatePickup(columnCount);
             } 
         }
 
@@ -394,39 +591,20 @@ public final class Road implements Drawable, Updatable {
                     tileWidth, 0
                 )
             );
-            if (columns.size() != 0)
-                columns.remove(0);
-        }
-
-        for (ArrayList<Obstacle> l : obstacles.values()) {
-            ArrayList<Obstacle> offscreen = new ArrayList<>();
-            float currentX = Float.NEGATIVE_INFINITY;
-            for (Obstacle o : l) {
-                Vector2f newPos = o.move(dX);
-                if (newPos.x < currentX + (o.getSize().x / 2))
-                    o.setPosition(
-                        new Vector2f(
-                            currentX + (o.getSize().x / 2),
-                            newPos.y
-                        )
-                    );
-                currentX = newPos.x + o.getSize().x;
-
-                if (!o.isOnScreen())
-                    offscreen.add(o);
+            //keep the previous position relative to the columns
+            previousOrigin = Vector2f.add(
+                previousOrigin, new Vector2f(
+                    tileWidth, 0
+                )
+            );
+            if (columnCount != 0) {
+                firstColumn = (firstColumn + 1) % columnTiles.length;
+                columnCount--;
             }
-            l.removeAll(offscreen);
         }
 
-        for (ArrayList<Pickup> l : pickups.values()) {
-            ArrayList<Pickup> offscreen = new ArrayList<>();
-            for (Pickup p : l) {
-                p.move(dX);
-                if (!p.isOnScreen())
-                    offscreen.add(p);
-            }
-            l.removeAll(offscreen);
-        }
+        obstacles.update(dX);
+        pickups.update(dX);
     }
 
     /**
@@ -482,94 +660,78 @@ public final class Road implements Drawable, Updatable {
     }
 
     public void clearObstacles() {
-        for (ArrayList<Obstacle> l : obstacles.values())
-            l.clear();
+        obstacles.clear();
     }
 
-    public boolean isPlayerColliding(FloatRect playerBounds) {
-        ArrayList<Integer> playerLanes = new ArrayList<>();
+    /**
+     * Work out which lanes the player is touching, from the lane
+     * with the top of the player in it to the one with the bottom
+     * @param playerBounds bounds of the player
+     * @return false if the player isn't on any lane, otherwise the
+     * lanes are stored in firstPlayerLane and lastPlayerLane
+     */
+    private boolean findPlayerLanes(FloatRect playerBounds) {
+        float laneHeight = ROAD_TILE_DIMENSIONS.y * ROAD_TILE_SCALE;
+        float topEdge = getTopEdge();
+        float pBottom = playerBounds.top + playerBounds.height;
+        firstPlayerLane = -1;
         for (int i = 0; i < lanes; i++) {
-            float top = getTopEdge() + (i * ROAD_TILE_DIMENSIONS.y * ROAD_TILE_SCALE);
-            float bottom = getTopEdge() + ((i + 1) * ROAD_TILE_DIMENSIONS.y * ROAD_TILE_SCALE);
-            if (playerBounds.top >= top && playerBounds.top <= bottom) {
-                playerLanes.add(i);
-                continue;
-            }
-            float pBottom = playerBounds.top + playerBounds.height;
-            if (pBottom >= top && pBottom <= bottom) {
-                playerLanes.add(i);
-                continue;
+            float top = topEdge + (i * laneHeight);
+            float bottom = topEdge + ((i + 1) * laneHeight);
+            if ((playerBounds.top >= top && playerBounds.top <= bottom)
+                || (pBottom >= top && pBottom <= bottom)) {
+                if (firstPlayerLane == -1)
+                    firstPlayerLane = i;
+                lastPlayerLane = i;
+            } else if (firstPlayerLane != -1 && i > lastPlayerLane + 1) {
+                break;
             }
-
-            if (playerLanes.size() != 0)
-                if (i > playerLanes.get(playerLanes.size() - 1) + 1)
-                    break;
         }
-        if (playerLanes.size() == 2 && playerLanes.get(0) + 1 != playerLanes.get(1))
-            playerLanes.add(1, playerLanes.get(0) + 1);
-
-        boolean collision = false;
-        Obstacle collider = null;
-        for (int i : playerLanes) {
-            for (Obstacle o : obstacles.get(i)) {
-                collision = o.intersects(playerBounds);
-                if (collision) {
-                    obstacles.get(i).remove(o);
-                    collider = o;
-                    break;
-                }
+        return firstPlayerLane != -1;
+    }
+
+    public boolean isPlayerColliding(FloatRect playerBounds) {
+        if (!findPlayerLanes(playerBounds)) return false;
+
+        for (int lane = firstPlayerLane; lane <= lastPlayerLane; lane++) {
+            int i = obstacles.findIntersecting(lane, playerBounds);
+            if (i == -1) continue;
+
+            Trace.instant("Collision", "gameplay", obstacles.getType(lane, i).name());
+
+            if (explosion != null) {
+                float eX = obstacles.getX(lane, i) - (explosion.getGlobalBounds().width - obstacles.getWidth()) / 2;
+                float eY = obstacles.getY(lane, i) - (explosion.getGlobalBounds().height - obstacles.getHeight());
+                explosion.setPosition(new Vector2f(eX, eY));
+                explosion.restart();
+                explosion.play();
             }
-            if (collision) break;
-        }
 
-        if (collision) {
-            float eX = collider.getPosition().x - (explosion.getGlobalBounds().width - collider.getSize().x) / 2;
-            float eY = collider.getPosition().y - (explosion.getGlobalBounds().height - collider.getSize().y);
-            explosion.setPosition(new Vector2f(eX, eY));
-            explosion.restart();
-            explosion.play();
+            obstacles.remove(lane, i);
+            return true;
         }
 
-        return collision;
+        return false;
     }
 
-    public Pickup isPlayerOnPickup(FloatRect playerBounds) {
-        ArrayList<Integer> playerLanes = new ArrayList<>();
-        for (int i = 0; i < lanes; i++) {
-            float top = getTopEdge() + (i * ROAD_TILE_DIMENSIONS.y * ROAD_TILE_SCALE);
-            float bottom = getTopEdge() + ((i + 1) * ROAD_TILE_DIMENSIONS.y * ROAD_TILE_SCALE);
-            if (playerBounds.top >= top && playerBounds.top <= bottom) {
-                playerLanes.add(i);
-                continue;
-            }
-            float pBottom = playerBounds.top + playerBounds.height;
-            if (pBottom >= top && pBottom <= bottom) {
-                playerLanes.add(i);
-                continue;
-            }
+    /**
+     * Check for, and remove, a pickup the player is touching
+     * @param playerBounds bounds of the player
+     * @return type of the pickup touched, or null if there isn't one
+     */
+    public PickupType isPlayerOnPickup(FloatRect playerBounds) {
+        if (!findPlayerLanes(playerBounds)) return null;
 
-            if (playerLanes.size() != 0)
-                if (i > playerLanes.get(playerLanes.size() - 1) + 1)
-                    break;
-        }
-        if (playerLanes.size() == 2 && playerLanes.get(0) + 1 != playerLanes.get(1))
-            playerLanes.add(1, playerLanes.get(0) + 1);
-
-        boolean collision = false;
-        Pickup collider = null;
-        for (int i : playerLanes) {
-            for (Pickup p : pickups.get(i)) {
-                collision = p.intersects(playerBounds);
-                if (collision) {
-                    pickups.get(i).remove(p);
-                    collider = p;
-                    break;
-                }
-            }
-            if (collision) break;
+        for (int lane = firstPlayerLane; lane <= lastPlayerLane; lane++) {
+            int i = pickups.findIntersecting(lane, playerBounds);
+            if (i == -1) continue;
+
+            PickupType type = pickups.getType(lane, i);
+            pickups.remove(lane, i);
+            return type;
         }
 
-        return collider;
+        return null;
     }
 
     private class InvalidLaneCountException extends RuntimeException {
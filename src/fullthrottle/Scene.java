@@ -0,0 +1,89 @@
+package fullthrottle;
+
+import java.util.ArrayList;
+
+import org.jsfml.graphics.Drawable;
+
+import fullthrottle.gfx.Renderer;
+import fullthrottle.ui.Button;
+import fullthrottle.ui.ButtonManager;
+import fullthrottle.util.Updatable;
+
+/**
+ * The drawables, updatables and buttons that belong to one game
+ * state, switched on and off together by GameManager
+ * A scene's drawables go in render layers that only it uses, so
+ * while it's off its layers are skipped by the Renderer, its
+ * updatables aren't updated and its buttons aren't sent mouse events
+ * Scenes start off
+ */
+public final class Scene implements Updatable {
+    private final ArrayList<Integer> layers = new ArrayList<>();
+    private final ArrayList<Updatable> updatables = new ArrayList<>();
+    private final ArrayList<Button> buttons = new ArrayList<>();
+
+    private volatile boolean active = false;
+
+    /**
+     * Add a drawable to the Renderer as part of this scene
+     * NB: the layer mustn't be used by anything outside the scene
+     * @param d object to be drawn
+     * @param rL layer to assign object to (higher = further back)
+     */
+    public void addDrawable(Drawable d, int rL) {
+        Renderer.addDrawable(d, rL);
+        if (!layers.contains(rL))
+            layers.add(rL);
+        Renderer.setLayerEnabled(rL, active);
+    }
+
+    /**
+     * @param u object to update every simulation step while active
+     */
+    public void addUpdatable(Updatable u) {
+        updatables.add(u);
+    }
+
+    /**
+     * Add a button, which is only observing the
+     * ButtonManager while the scene is active
+     * @param b button to add
+     */
+    public void addButton(Button b) {
+        buttons.add(b);
+        if (active)
+            ButtonManager.getInstance().addObserver(b);
+    }
+
+    /**
+     * Switch the whole scene on or off
+     * @param b true = on
+     */
+    public void setActive(boolean b) {
+        if (b == active) return;
+        active = b;
+
+        for (int i = 0; i < layers.size(); i++)
+            Renderer.setLayerEnabled(layers.get(i), b);
+
+        ButtonManager buttonManager = ButtonManager.getInstance();
+        for (Button button : buttons) {
+            if (b)
+                buttonManager.addObserver(button);
+            else
+                buttonManager.deleteObserver(button);
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public void update() {
+        if (!active) return;
+
+        for (int i = 0; i < updatables.size(); i++)
+            updatables.get(i).update();
+    }
+}
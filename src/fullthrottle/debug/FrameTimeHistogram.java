@@ -0,0 +1,111 @@
+package fullthrottle.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of frame times in microseconds, in the style
+ * of an HDR histogram: each power of two range is split into
+ * SUB_BUCKETS equal buckets so every value is stored to within ~3%
+ * Recording never allocates or locks so it's safe to record on one
+ * thread while reading percentiles on another
+ */
+public class FrameTimeHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Largest value tracked (in microseconds), anything
+     * longer is counted as this value
+     */
+    public static final long MAX_VALUE = 60_000_000L;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount;
+    private final AtomicLong maxValue;
+
+    public FrameTimeHistogram() {
+        counts = new AtomicLongArray(bucketIndex(MAX_VALUE) + 1);
+        totalCount = new AtomicLong();
+        maxValue = new AtomicLong();
+    }
+
+    /**
+     * Add a value to the histogram
+     * @param micros value in microseconds
+     */
+    public void record(long micros) {
+        if (micros < 0) micros = 0;
+        if (micros > MAX_VALUE) micros = MAX_VALUE;
+
+        counts.incrementAndGet(bucketIndex(micros));
+        totalCount.incrementAndGet();
+
+        long max = maxValue.get();
+        while (micros > max && !maxValue.compareAndSet(max, micros))
+            max = maxValue.get();
+    }
+
+    /**
+     * Get the value below which the given percentage of values fall
+     * @param percentile 0-100
+     * @return value in microseconds, 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) return 0;
+
+        long target = (long)Math.ceil(total * percentile / 100.0);
+        if (target < 1) target = 1;
+
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(bucketHighestValue(i), maxValue.get());
+        }
+        return maxValue.get();
+    }
+
+    /**
+     * @return largest value recorded in microseconds
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * @return number of values recorded
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Remove all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++)
+            counts.set(i, 0);
+        totalCount.set(0);
+        maxValue.set(0);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) return (int)value;
+
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        int sub = (int)(value >>> shift);
+        //sub is between SUB_BUCKETS and 2*SUB_BUCKETS - 1
+        return (shift + 1) * SUB_BUCKETS + (sub - SUB_BUCKETS);
+    }
+
+    private static long bucketHighestValue(int index) {
+        if (index < SUB_BUCKETS) return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
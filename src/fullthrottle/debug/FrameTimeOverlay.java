@@ -0,0 +1,138 @@
+package fullthrottle.debug;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.jsfml.graphics.BlendMode;
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.Drawable;
+import org.jsfml.graphics.PrimitiveType;
+import org.jsfml.graphics.RenderStates;
+import org.jsfml.graphics.RenderTarget;
+import org.jsfml.graphics.Text;
+import org.jsfml.graphics.Vertex;
+import org.jsfml.graphics.VertexArray;
+import org.jsfml.system.Vector2f;
+
+import fullthrottle.gfx.QualityGovernor;
+import fullthrottle.ui.UI;
+import fullthrottle.util.FramePacer;
+
+/**
+ * Debug overlay showing frame time percentiles and
+ * a graph of the most recent frames
+ */
+public class FrameTimeOverlay implements Drawable {
+    /**
+     * Number of frames shown in the graph
+     */
+    public static final int GRAPH_FRAMES = 240;
+    /**
+     * Frame time (in ms) at the top of the graph,
+     * longer frames are clipped
+     */
+    public static final float GRAPH_MAX_MS = 50;
+
+    private static final float GRAPH_HEIGHT = 100;
+    private static final int TEXT_UPDATE_INTERVAL = 15;
+
+    private static final Color GRAPH_BACKGROUND = new Color(0, 0, 0, 160);
+    private static final Color GOOD_FRAME = Color.GREEN;
+    private static final Color SLOW_FRAME = Color.YELLOW;
+    private static final Color BAD_FRAME = Color.RED;
+
+    private final FrameTimeRecorder recorder;
+
+    private Vector2f position;
+    private Text text;
+    private int framesUntilTextUpdate;
+
+    public FrameTimeOverlay(FrameTimeRecorder recorder, Vector2f position) {
+        this.recorder = recorder;
+        this.position = position;
+
+        text = new Text("", UI.DEFAULT_UI_FONT, 16);
+        text.setColor(Color.RED);
+        text.setPosition(position);
+        framesUntilTextUpdate = 0;
+    }
+
+    /**
+     * Write the recorded frame times to a timestamped CSV file
+     * in the working directory
+     * @return path of the file written, or null if it failed
+     */
+    public Path dumpCsv() {
+        Path path = Paths.get("./frametimes-" + System.currentTimeMillis() + ".csv");
+        try {
+            recorder.writeCsv(path);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        System.out.println("Frame times written to " + path);
+        return path;
+    }
+
+    private void updateText() {
+        FrameTimeHistogram h = recorder.getHistogram();
+        FrameTimeHistogram input = recorder.getInputLatency();
+        text.setString(
+            "p50 " + formatMs(h.getPercentile(50)) + "ms\n" +
+            "p95 " + formatMs(h.getPercentile(95)) + "ms\n" +
+            "p99 " + formatMs(h.getPercentile(99)) + "ms\n" +
+            "max " + formatMs(h.getMax()) + "ms\n" +
+            "work " + (int)(FramePacer.getWorkTime() * 1000) + "ms\n" +
+            "wait " + (int)(FramePacer.getWaitTime() * 1000) + "ms\n" +
+            "input p50 " + formatMs(input.getPercentile(50)) +
+            " p99 " + formatMs(input.getPercentile(99)) + "ms\n" +
+            "quality " + QualityGovernor.getLevel()
+        );
+    }
+
+    private static String formatMs(long micros) {
+        return String.format("%.1f", micros / 1000f);
+    }
+
+    @Override
+    public void draw(RenderTarget arg0, RenderStates arg1) {
+        if (--framesUntilTextUpdate <= 0) {
+            updateText();
+            framesUntilTextUpdate = TEXT_UPDATE_INTERVAL;
+        }
+
+        RenderStates rs = new RenderStates(BlendMode.ALPHA);
+        text.draw(arg0, rs);
+
+        //graph sits under the text, newest frame on the right
+        float left = position.x;
+        float bottom = position.y + text.getGlobalBounds().height + 16 + GRAPH_HEIGHT;
+        float targetMs = 1000f / FramePacer.getTargetFramerate();
+
+        VertexArray graph = new VertexArray(PrimitiveType.QUADS);
+        addQuad(graph, left, bottom - GRAPH_HEIGHT, GRAPH_FRAMES, GRAPH_HEIGHT, GRAPH_BACKGROUND);
+
+        int frames = Math.min(GRAPH_FRAMES, recorder.size());
+        for (int i = 0; i < frames; i++) {
+            float ms = recorder.get(i) / 1e6f;
+            float h = Math.min(ms, GRAPH_MAX_MS) / GRAPH_MAX_MS * GRAPH_HEIGHT;
+            Color c = (ms <= targetMs * 1.1f) ? GOOD_FRAME
+                : (ms <= targetMs * 2) ? SLOW_FRAME : BAD_FRAME;
+            addQuad(graph, left + GRAPH_FRAMES - 1 - i, bottom - h, 1, h, c);
+        }
+
+        //line at the target frame time
+        float targetY = bottom - Math.min(targetMs, GRAPH_MAX_MS) / GRAPH_MAX_MS * GRAPH_HEIGHT;
+        addQuad(graph, left, targetY, GRAPH_FRAMES, 1, Color.WHITE);
+
+        graph.draw(arg0, rs);
+    }
+
+    private static void addQuad(VertexArray va, float x, float y, float w, float h, Color c) {
+        va.add(new Vertex(new Vector2f(x, y), c));
+        va.add(new Vertex(new Vector2f(x + w, y), c));
+        va.add(new Vertex(new Vector2f(x + w, y + h), c));
+        va.add(new Vertex(new Vector2f(x, y + h), c));
+    }
+}
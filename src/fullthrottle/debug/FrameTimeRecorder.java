@@ -0,0 +1,114 @@
+package fullthrottle.debug;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the length of every frame in a ring buffer of the last
+ * CAPACITY frames and in a histogram of every frame since the last
+ * reset. Only one thread should record, any thread can read
+ */
+public class FrameTimeRecorder {
+    /**
+     * Number of frames kept in the ring buffer, must be a power of 2
+     */
+    public static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+
+    private final AtomicLongArray frameTimes;
+    private final AtomicLong frameCount;
+    private final FrameTimeHistogram histogram;
+    private final FrameTimeHistogram inputLatency;
+
+    public FrameTimeRecorder() {
+        frameTimes = new AtomicLongArray(CAPACITY);
+        frameCount = new AtomicLong();
+        histogram = new FrameTimeHistogram();
+        inputLatency = new FrameTimeHistogram();
+    }
+
+    /**
+     * Add a frame to the recorder
+     * @param nanos length of the frame in nanoseconds
+     */
+    public void record(long nanos) {
+        long frame = frameCount.get();
+        frameTimes.set((int)(frame & MASK), nanos);
+        //publish the frame only once its time has been written
+        frameCount.lazySet(frame + 1);
+        histogram.record(nanos / 1000);
+    }
+
+    /**
+     * Add an input-to-photon latency sample, i.e. the time from an
+     * input being captured to the first frame showing it displayed
+     * @param nanos latency in nanoseconds
+     */
+    public void recordInputLatency(long nanos) {
+        inputLatency.record(nanos / 1000);
+    }
+
+    /**
+     * Get the length of a recent frame
+     * @param framesAgo 0 = the most recent frame, must be &lt; size()
+     * @return length of the frame in nanoseconds
+     */
+    public long get(int framesAgo) {
+        long frame = frameCount.get() - 1 - framesAgo;
+        return frameTimes.get((int)(frame & MASK));
+    }
+
+    /**
+     * @return number of frames currently in the ring buffer
+     */
+    public int size() {
+        return (int)Math.min(frameCount.get(), CAPACITY);
+    }
+
+    /**
+     * @return total number of frames recorded
+     */
+    public long getFrameCount() {
+        return frameCount.get();
+    }
+
+    public FrameTimeHistogram getHistogram() {
+        return histogram;
+    }
+
+    public FrameTimeHistogram getInputLatency() {
+        return inputLatency;
+    }
+
+    /**
+     * Write the percentiles and the frames in the
+     * ring buffer (oldest first) to a CSV file
+     * @param path file to write to
+     * @throws IOException if the file can't be written
+     */
+    public void writeCsv(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("# frames=" + histogram.getCount()
+                + " p50_us=" + histogram.getPercentile(50)
+                + " p95_us=" + histogram.getPercentile(95)
+                + " p99_us=" + histogram.getPercentile(99)
+                + " max_us=" + histogram.getMax());
+            writer.newLine();
+            writer.write("frame,frame_time_us");
+            writer.newLine();
+
+            long last = frameCount.get();
+            int n = (int)Math.min(last, CAPACITY);
+            for (int i = n - 1; i >= 0; i--) {
+                long frame = last - 1 - i;
+                long micros = frameTimes.get((int)(frame & MASK)) / 1000;
+                writer.write(frame + "," + micros);
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package fullthrottle.debug;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lightweight frame profiler, times named scopes that can be nested
+ * Scopes are registered once up front and referred to by id, e.g.
+ *     private static final int SCOPE = Profiler.register("Road Vertices");
+ *     ...
+ *     Profiler.begin(SCOPE);
+ *     buildVertices();
+ *     Profiler.end();
+ * Each thread records its own frames, the last complete frame of
+ * each thread is published for the overlay to read
+ * When disabled begin() and end() return straight away and
+ * nothing is allocated or recorded
+ * This is a static class and shouldn't be instantiated
+ */
+public final class Profiler {
+    /**
+     * Most scopes recorded by one thread in one frame,
+     * any more are dropped until the next frame
+     */
+    public static final int MAX_RECORDS = 256;
+    /**
+     * Deepest scopes can be nested
+     */
+    public static final int MAX_DEPTH = 32;
+
+    private static volatile boolean enabled = false;
+
+    private static volatile String[] scopeNames = new String[0];
+
+    private static final List<ThreadProfile> threads = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<ThreadProfile> local = ThreadLocal.withInitial(() -> {
+        ThreadProfile p = new ThreadProfile(Thread.currentThread().getName());
+        threads.add(p);
+        return p;
+    });
+
+    private Profiler() {
+
+    }
+
+    /**
+     * Register a named scope, registering the same name
+     * twice returns the same id
+     * @param name name shown in the overlay
+     * @return id to pass to begin()
+     */
+    public static synchronized int register(String name) {
+        String[] names = scopeNames;
+        for (int i = 0; i < names.length; i++)
+            if (names[i].equals(name)) return i;
+
+        names = Arrays.copyOf(names, names.length + 1);
+        names[names.length - 1] = name;
+        scopeNames = names;
+        return names.length - 1;
+    }
+
+    /**
+     * Get the name a scope was registered with
+     * @param scope id returned by register()
+     * @return name of the scope
+     */
+    public static String getScopeName(int scope) {
+        return scopeNames[scope];
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean b) {
+        enabled = b;
+    }
+
+    /**
+     * Every thread that has recorded a frame
+     * @return list of thread profiles, safe to iterate
+     */
+    public static List<ThreadProfile> getThreads() {
+        return threads;
+    }
+
+    /**
+     * Start a new frame on the calling thread,
+     * any unfinished scopes are discarded
+     */
+    public static void beginFrame() {
+        if (!enabled) return;
+        local.get().beginFrame();
+    }
+
+    /**
+     * Finish the calling thread's frame and publish it
+     */
+    public static void endFrame() {
+        if (!enabled) return;
+        local.get().endFrame();
+    }
+
+    /**
+     * Start timing a scope on the calling thread
+     * @param scope id returned by register()
+     */
+    public static void begin(int scope) {
+        if (!enabled) return;
+        local.get().begin(scope);
+    }
+
+    /**
+     * Stop timing the most recently started scope on the calling thread
+     */
+    public static void end() {
+        if (!enabled) return;
+        local.get().end();
+    }
+
+    /**
+     * Scopes recorded by one thread
+     */
+    public static final class ThreadProfile {
+        private final String threadName;
+
+        //frame being recorded, only touched by the owning thread
+        private final int[] scopes = new int[MAX_RECORDS];
+        private final int[] depths = new int[MAX_RECORDS];
+        private final long[] starts = new long[MAX_RECORDS];
+        private final long[] ends = new long[MAX_RECORDS];
+        private final int[] stack = new int[MAX_DEPTH];
+        private int count;
+        private int depth;
+        private long frameStart;
+        private boolean inFrame;
+
+        //last complete frame, guarded by version (odd while writing)
+        private final int[] pScopes = new int[MAX_RECORDS];
+        private final int[] pDepths = new int[MAX_RECORDS];
+        private final long[] pStarts = new long[MAX_RECORDS];
+        private final long[] pEnds = new long[MAX_RECORDS];
+        private int pCount;
+        private long pFrameLength;
+        private volatile int version;
+
+        private ThreadProfile(String threadName) {
+            this.threadName = threadName;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        private void beginFrame() {
+            count = 0;
+            depth = 0;
+            frameStart = System.nanoTime();
+            inFrame = true;
+        }
+
+        private void begin(int scope) {
+            if (!inFrame) return;
+            if (depth >= MAX_DEPTH) {
+                depth++;
+                return;
+            }
+
+            int record = -1;
+            if (count < MAX_RECORDS) {
+                record = count++;
+                scopes[record] = scope;
+                depths[record] = depth;
+                starts[record] = System.nanoTime() - frameStart;
+                ends[record] = starts[record];
+            }
+            stack[depth++] = record;
+        }
+
+        private void end() {
+            if (!inFrame || depth == 0) return;
+            depth--;
+            if (depth >= MAX_DEPTH) return;
+
+            int record = stack[depth];
+            if (record >= 0)
+                ends[record] = System.nanoTime() - frameStart;
+        }
+
+        private void endFrame() {
+            //the profiler was enabled part way through the frame
+            if (!inFrame) return;
+            inFrame = false;
+            long frameLength = System.nanoTime() - frameStart;
+
+            version++;
+            VarHandle.storeStoreFence();
+            System.arraycopy(scopes, 0, pScopes, 0, count);
+            System.arraycopy(depths, 0, pDepths, 0, count);
+            System.arraycopy(starts, 0, pStarts, 0, count);
+            System.arraycopy(ends, 0, pEnds, 0, count);
+            pCount = count;
+            pFrameLength = frameLength;
+            version++;
+        }
+
+        /**
+         * Copy the last complete frame, can be called from any thread
+         * @param view ProfileView to copy into
+         */
+        public void copyTo(ProfileView view) {
+            view.threadName = threadName;
+            while (true) {
+                int v = version;
+                if ((v & 1) == 0) {
+                    int n = pCount;
+                    System.arraycopy(pScopes, 0, view.scopes, 0, n);
+                    System.arraycopy(pDepths, 0, view.depths, 0, n);
+                    System.arraycopy(pStarts, 0, view.starts, 0, n);
+                    System.arraycopy(pEnds, 0, view.ends, 0, n);
+                    view.count = n;
+                    view.frameLength = pFrameLength;
+
+                    VarHandle.acquireFence();
+                    if (version == v) return;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Copy of one thread's frame, filled by ThreadProfile.copyTo()
+     * Times are in nanoseconds from the start of the frame
+     */
+    public static final class ProfileView {
+        public String threadName;
+        public final int[] scopes = new int[MAX_RECORDS];
+        public final int[] depths = new int[MAX_RECORDS];
+        public final long[] starts = new long[MAX_RECORDS];
+        public final long[] ends = new long[MAX_RECORDS];
+        public int count;
+        public long frameLength;
+    }
+}
@@ -0,0 +1,136 @@
+package fullthrottle.debug;
+
+import java.util.ArrayList;
+
+import org.jsfml.graphics.BlendMode;
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.Drawable;
+import org.jsfml.graphics.PrimitiveType;
+import org.jsfml.graphics.RenderStates;
+import org.jsfml.graphics.RenderTarget;
+import org.jsfml.graphics.Text;
+import org.jsfml.graphics.Vertex;
+import org.jsfml.graphics.VertexArray;
+import org.jsfml.system.Vector2f;
+
+import fullthrottle.debug.Profiler.ProfileView;
+import fullthrottle.debug.Profiler.ThreadProfile;
+import fullthrottle.ui.UI;
+import fullthrottle.util.FramePacer;
+
+/**
+ * Debug overlay drawing a flame graph of the last frame recorded
+ * by each profiled thread, with a breakdown of the scopes in text
+ * The full width of a graph is one frame at the target framerate
+ */
+public class ProfilerOverlay implements Drawable {
+    public static final float GRAPH_WIDTH = 600;
+    private static final float ROW_HEIGHT = 12;
+    private static final float THREAD_SPACING = 8;
+    private static final int MAX_TEXT_LINES = 24;
+    private static final int TEXT_UPDATE_INTERVAL = 15;
+
+    private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+    private static final Color[] SCOPE_COLORS = {
+        new Color(230, 120, 60),
+        new Color(230, 180, 60),
+        new Color(120, 200, 80),
+        new Color(80, 170, 220),
+        new Color(170, 110, 220),
+        new Color(220, 90, 140)
+    };
+
+    private Vector2f position;
+    private Text text;
+    private int framesUntilTextUpdate;
+
+    private ArrayList<ProfileView> views;
+
+    public ProfilerOverlay(Vector2f position) {
+        this.position = position;
+
+        text = new Text("", UI.DEFAULT_UI_FONT, 12);
+        text.setColor(Color.WHITE);
+        framesUntilTextUpdate = 0;
+
+        views = new ArrayList<>();
+    }
+
+    private void updateText() {
+        StringBuilder sb = new StringBuilder();
+        int lines = 0;
+        for (ProfileView v : views) {
+            if (lines >= MAX_TEXT_LINES) break;
+            sb.append(v.threadName).append(' ')
+                .append(formatMs(v.frameLength)).append("ms\n");
+            lines++;
+
+            for (int i = 0; i < v.count && lines < MAX_TEXT_LINES; i++) {
+                for (int d = 0; d <= v.depths[i]; d++)
+                    sb.append("  ");
+                sb.append(Profiler.getScopeName(v.scopes[i])).append(' ')
+                    .append(formatMs(v.ends[i] - v.starts[i])).append("ms\n");
+                lines++;
+            }
+        }
+        text.setString(sb.toString());
+    }
+
+    private static String formatMs(long nanos) {
+        return String.format("%.2f", nanos / 1e6f);
+    }
+
+    @Override
+    public void draw(RenderTarget arg0, RenderStates arg1) {
+        if (!Profiler.isEnabled()) return;
+
+        //copy each thread's last frame so the graph and text agree
+        int t = 0;
+        for (ThreadProfile p : Profiler.getThreads()) {
+            if (t == views.size()) views.add(new ProfileView());
+            p.copyTo(views.get(t++));
+        }
+
+        if (--framesUntilTextUpdate <= 0) {
+            updateText();
+            framesUntilTextUpdate = TEXT_UPDATE_INTERVAL;
+        }
+
+        float frameBudget = 1e9f / FramePacer.getTargetFramerate();
+        VertexArray graph = new VertexArray(PrimitiveType.QUADS);
+
+        float y = position.y;
+        for (int i = 0; i < t; i++) {
+            ProfileView v = views.get(i);
+            int maxDepth = 0;
+            for (int r = 0; r < v.count; r++)
+                maxDepth = Math.max(maxDepth, v.depths[r]);
+            float height = (maxDepth + 1) * ROW_HEIGHT;
+
+            addQuad(graph, position.x, y, GRAPH_WIDTH, height, BACKGROUND);
+            for (int r = 0; r < v.count; r++) {
+                float x0 = Math.min(v.starts[r] / frameBudget, 1) * GRAPH_WIDTH;
+                float x1 = Math.min(v.ends[r] / frameBudget, 1) * GRAPH_WIDTH;
+                Color c = SCOPE_COLORS[v.scopes[r] % SCOPE_COLORS.length];
+                addQuad(
+                    graph, position.x + x0, y + v.depths[r] * ROW_HEIGHT,
+                    Math.max(x1 - x0, 1), ROW_HEIGHT - 1, c
+                );
+            }
+            y += height + THREAD_SPACING;
+        }
+
+        RenderStates rs = new RenderStates(BlendMode.ALPHA);
+        graph.draw(arg0, rs);
+
+        text.setPosition(position.x + GRAPH_WIDTH + 10, position.y);
+        text.draw(arg0, rs);
+    }
+
+    private static void addQuad(VertexArray va, float x, float y, float w, float h, Color c) {
+        va.add(new Vertex(new Vector2f(x, y), c));
+        va.add(new Vertex(new Vector2f(x + w, y), c));
+        va.add(new Vertex(new Vector2f(x + w, y + h), c));
+        va.add(new Vertex(new Vector2f(x, y + h), c));
+    }
+}
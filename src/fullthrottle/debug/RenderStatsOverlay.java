@@ -0,0 +1,63 @@
+package fullthrottle.debug;
+
+import org.jsfml.graphics.BlendMode;
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.Drawable;
+import org.jsfml.graphics.RenderStates;
+import org.jsfml.graphics.RenderTarget;
+import org.jsfml.graphics.Text;
+import org.jsfml.system.Vector2f;
+
+import fullthrottle.gfx.RenderStats;
+import fullthrottle.gfx.Renderer;
+import fullthrottle.ui.UI;
+
+/**
+ * Debug overlay showing the Renderer's counts for the last frame,
+ * totals first then objects drawn/culled in each layer
+ * NB: draw after Renderer.replay() so the counts are for this frame
+ */
+public class RenderStatsOverlay implements Drawable {
+    private static final int TEXT_UPDATE_INTERVAL = 15;
+
+    private Text text;
+    private int framesUntilTextUpdate;
+
+    public RenderStatsOverlay(Vector2f position) {
+        text = new Text("", UI.DEFAULT_UI_FONT, 12);
+        text.setColor(Color.WHITE);
+        text.setPosition(position);
+        framesUntilTextUpdate = 0;
+    }
+
+    private void updateText() {
+        RenderStats s = Renderer.getStats();
+        StringBuilder sb = new StringBuilder();
+        sb.append("draws ").append(s.getSubmitted())
+            .append(" -> ").append(s.getDrawCalls()).append('\n')
+            .append("vertices ").append(s.getVertices()).append('\n')
+            .append("texture binds ").append(s.getTextureBinds()).append('\n')
+            .append("objects ").append(s.getDrawn())
+            .append(" drawn ").append(s.getCulled()).append(" culled\n");
+
+        for (int i = 0; i < s.getLayerCount(); i++) {
+            sb.append("  layer ").append(s.getLayerDepth(i)).append(' ');
+            if (s.isLayerCached(i) && s.getLayerDrawn(i) == 0)
+                sb.append("cached\n");
+            else
+                sb.append(s.getLayerDrawn(i)).append('/')
+                    .append(s.getLayerDrawn(i) + s.getLayerCulled(i)).append('\n');
+        }
+        text.setString(sb.toString());
+    }
+
+    @Override
+    public void draw(RenderTarget arg0, RenderStates arg1) {
+        if (--framesUntilTextUpdate <= 0) {
+            updateText();
+            framesUntilTextUpdate = TEXT_UPDATE_INTERVAL;
+        }
+
+        text.draw(arg0, new RenderStates(BlendMode.ALPHA));
+    }
+}
@@ -0,0 +1,305 @@
+package fullthrottle.debug;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes timed events to a Chrome trace-event JSON file, which can
+ * be opened in chrome://tracing, Perfetto or Speedscope
+ * Events are queued and written by a background thread so tracing
+ * doesn't add file I/O to the frame, when tracing hasn't been
+ * started every method returns straight away
+ * The queue is a fixed size ring of slots allocated once, so adding
+ * an event allocates nothing, if it fills up events are dropped
+ * and the number dropped is printed when tracing stops
+ * Usage:
+ *     long start = Trace.now();
+ *     loadSomething();
+ *     Trace.complete("Load Something", "io", start);
+ * This is a static class and shouldn't be instantiated
+ */
+public final class Trace {
+    /**
+     * How often (in nanoseconds) the writer thread
+     * checks for new events
+     */
+    private static final long WRITE_INTERVAL = 50_000_000L;
+
+    /**
+     * Number of events that can be waiting to be written,
+     * must be a power of 2
+     */
+    public static final int CAPACITY = 8192;
+    private static final int MASK = CAPACITY - 1;
+
+    private static final VarHandle TAIL;
+    private static final VarHandle SEQUENCE =
+        MethodHandles.arrayElementVarHandle(long[].class);
+    static {
+        try {
+            TAIL = MethodHandles.lookup().findStaticVarHandle(Trace.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    //each event is stored across these arrays at its slot
+    private static final char[] phases = new char[CAPACITY];
+    private static final String[] names = new String[CAPACITY];
+    private static final String[] categories = new String[CAPACITY];
+    private static final String[] details = new String[CAPACITY];
+    private static final long[] threadIds = new long[CAPACITY];
+    private static final String[] threadNames = new String[CAPACITY];
+    private static final long[] starts = new long[CAPACITY];
+    private static final long[] durations = new long[CAPACITY];
+    /**
+     * Which turn of the ring each slot is ready for, a slot can be
+     * claimed when this equals the position being added at and
+     * read once it's one more than the position being read
+     */
+    private static final long[] sequences = new long[CAPACITY];
+    /**
+     * Next position to add at, claimed by adding threads in turn
+     */
+    @SuppressWarnings("unused")
+    private static long tail;
+    /**
+     * Next position to read from, only used by the thread writing
+     */
+    private static long head;
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static volatile boolean enabled = false;
+    private static long startTime;
+
+    private static BufferedWriter writer;
+    private static Thread writerThread;
+    private static boolean firstEvent;
+    /**
+     * Threads that have had their name written to the file
+     */
+    private static final HashSet<Long> namedThreads = new HashSet<>();
+
+    private Trace() {
+
+    }
+
+    /**
+     * Start tracing to a file, the file is finished when
+     * stop() is called or the program exits
+     * @param path file to write to, overwritten if it exists
+     * @throws IOException if the file can't be written
+     */
+    public static synchronized void start(String path) throws IOException {
+        if (enabled) return;
+
+        writer = Files.newBufferedWriter(Paths.get(path));
+        try {
+            writer.write("{\"traceEvents\":[");
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        firstEvent = true;
+        for (int i = 0; i < CAPACITY; i++)
+            sequences[i] = i;
+        TAIL.setVolatile(0L);
+        head = 0;
+        dropped.set(0);
+        startTime = System.nanoTime();
+        enabled = true;
+
+        writerThread = new Thread(Trace::writeLoop, "Trace Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Trace::stop));
+    }
+
+    /**
+     * Stop tracing, the writer thread writes any queued
+     * events and closes the file before this returns
+     */
+    public static synchronized void stop() {
+        if (writerThread == null) return;
+        enabled = false;
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+        if (dropped.get() > 0)
+            System.err.println("Trace queue full, dropped " + dropped.get() + " events");
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get a timestamp to pass to complete()
+     * @return current time in nanoseconds, 0 when not tracing
+     */
+    public static long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Add an event lasting from start until now
+     * @param name name shown on the timeline
+     * @param category used to filter events in the viewer
+     * @param start time returned by now() when the event started
+     */
+    public static void complete(String name, String category, long start) {
+        complete(name, category, start, null);
+    }
+
+    /**
+     * Add an event lasting from start until now
+     * @param name name shown on the timeline
+     * @param category used to filter events in the viewer
+     * @param start time returned by now() when the event started
+     * @param detail extra information shown with the event, can be null
+     */
+    public static void complete(String name, String category, long start, String detail) {
+        if (!enabled || start == 0) return;
+        long end = System.nanoTime();
+        add('X', name, category, detail, start, end - start);
+    }
+
+    /**
+     * Add an event that happens at a single point in time
+     * @param name name shown on the timeline
+     * @param category used to filter events in the viewer
+     * @param detail extra information shown with the event, can be null
+     */
+    public static void instant(String name, String category, String detail) {
+        if (!enabled) return;
+        add('i', name, category, detail, System.nanoTime(), 0);
+    }
+
+    /**
+     * Claim the next slot in the ring and fill it in,
+     * safe for any number of threads adding at once
+     */
+    private static void add(
+        char phase, String name, String category, String detail, long start, long duration
+    ) {
+        long t;
+        int i;
+        while (true) {
+            t = (long)TAIL.getVolatile();
+            i = (int)(t & MASK);
+            long s = (long)SEQUENCE.getAcquire(sequences, i);
+            if (s == t) {
+                if (TAIL.compareAndSet(t, t + 1)) break;
+            } else if (s < t) {
+                //the writer hasn't caught up with this slot yet
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+
+        Thread thread = Thread.currentThread();
+        phases[i] = phase;
+        names[i] = name;
+        categories[i] = category;
+        details[i] = detail;
+        threadIds[i] = thread.getId();
+        threadNames[i] = thread.getName();
+        starts[i] = start;
+        durations[i] = duration;
+        //publish the slot only once the event is in it
+        SEQUENCE.setRelease(sequences, i, t + 1);
+    }
+
+    /**
+     * Main loop of the writer thread, which owns the file
+     * and closes it however tracing ends
+     */
+    private static void writeLoop() {
+        try (BufferedWriter w = writer) {
+            while (enabled) {
+                writeQueued();
+                LockSupport.parkNanos(WRITE_INTERVAL);
+            }
+            writeQueued();
+            w.write("]}");
+        } catch (IOException e) {
+            e.printStackTrace();
+            enabled = false;
+        }
+    }
+
+    private static void writeQueued() throws IOException {
+        while (true) {
+            int i = (int)(head & MASK);
+            if ((long)SEQUENCE.getAcquire(sequences, i) != head + 1)
+                break;
+
+            if (!firstEvent) writer.write(',');
+            firstEvent = false;
+
+            long threadId = threadIds[i];
+            if (namedThreads.add(threadId)) {
+                writer.write("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + threadId);
+                writer.write(",\"args\":{\"name\":\"");
+                writeEscaped(threadNames[i]);
+                writer.write("\"}},");
+            }
+
+            writer.write("\n{\"name\":\"");
+            writeEscaped(names[i]);
+            writer.write("\",\"cat\":\"");
+            writeEscaped(categories[i]);
+            writer.write("\",\"ph\":\"" + phases[i] + "\",\"pid\":1,\"tid\":" + threadId);
+            writer.write(",\"ts\":" + toMicros(starts[i] - startTime));
+            if (phases[i] == 'X')
+                writer.write(",\"dur\":" + toMicros(durations[i]));
+            else
+                writer.write(",\"s\":\"t\"");
+            if (details[i] != null) {
+                writer.write(",\"args\":{\"detail\":\"");
+                writeEscaped(details[i]);
+                writer.write("\"}");
+            }
+            writer.write('}');
+
+            names[i] = null;
+            categories[i] = null;
+            details[i] = null;
+            threadNames[i] = null;
+            //hand the slot back for the next turn of the ring
+            SEQUENCE.setRelease(sequences, i, head + CAPACITY);
+            head++;
+        }
+        writer.flush();
+    }
+
+    private static String toMicros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+    }
+
+    private static void writeEscaped(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int)c));
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+}
@@ -9,9 +9,10 @@ import org.jsfml.graphics.RenderTarget;
 import org.jsfml.graphics.Sprite;
 import org.jsfml.system.Vector2f;
 
+import fullthrottle.util.TimeDomain;
 import fullthrottle.util.TimeManager;
 
-public class Animation extends Sprite {
+public class Animation extends Sprite implements Batchable {
 
     private ArrayList<Sprite> sprites;
     private int framerate; //framerate in frames per second
@@ -22,6 +23,8 @@ public class Animation extends Sprite {
 
     private boolean loops;
 
+    private TimeDomain timeDomain;
+
     public Animation(SpriteSequence sprites, int framerate, boolean loops) {
         super(sprites.getSequence().get(0).getTexture());
         
@@ -32,6 +35,16 @@ public class Animation extends Sprite {
         this.loops = loops;
 
         this.paused = false;
+        this.timeDomain = TimeManager.ui();
+    }
+
+    /**
+     * Set which time domain the animation runs on,
+     * animations run on UI time by default
+     * @param timeDomain domain to take delta time from
+     */
+    public void setTimeDomain(TimeDomain timeDomain) {
+        this.timeDomain = timeDomain;
     }
 
     public void setFramerate(int framerate) {
@@ -76,12 +89,26 @@ public class Animation extends Sprite {
 
     @Override
     public void draw(RenderTarget arg0, RenderStates arg1) {
+        advance();
+        sprites.get(currentAnimationFrame).draw(arg0, arg1);
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates states) {
+        advance();
+        batch.addSprite(sprites.get(currentAnimationFrame), states);
+    }
+
+    /**
+     * Moves the animation on by the time since the last frame
+     */
+    private void advance() {
         boolean update = !loops;
         update &= currentAnimationFrame == sprites.size() - 1;
         update = !update;
             
         if (!paused && update) {
-            timeSinceLastChange += TimeManager.deltaTime();
+            timeSinceLastChange += timeDomain.deltaTime();
             float timeUntilChange = 1f / framerate;
             if (timeSinceLastChange >= timeUntilChange) {
                 timeSinceLastChange -= timeUntilChange;
@@ -90,8 +117,6 @@ public class Animation extends Sprite {
                     currentAnimationFrame %= sprites.size();
             }
         }
-
-        sprites.get(currentAnimationFrame).draw(arg0, arg1);
     }
 
 
@@ -9,7 +9,7 @@ import org.jsfml.graphics.RenderTarget;
 import org.jsfml.graphics.Sprite;
 import org.jsfml.system.Vector2f;
 
-public class Animator extends Sprite {
+public class Animator extends Sprite implements Batchable {
     private HashMap<String, Animation> animations;
 
     private Animation currentAnimation;
@@ -63,6 +63,11 @@ public class Animator extends Sprite {
         currentAnimation.draw(arg0, arg1);
     }
 
+    @Override
+    public void batch(SpriteBatch batch, RenderStates states) {
+        currentAnimation.batch(batch, states);
+    }
+
 
 
     @Override
@@ -0,0 +1,190 @@
+package fullthrottle.gfx;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Build-time tool that packs every PNG under res/ into texture atlas
+ * pages and writes an index of where each image ended up, which
+ * TextureAtlas reads when the game loads textures
+ * Images too large for a page are left out and loaded loose
+ * Usage (after compiling, from the root directory):
+ *     java -cp out fullthrottle.gfx.AtlasPacker
+ * NB: only uses java.awt, so it runs without the native libraries
+ * This is a static class and shouldn't be instantiated
+ */
+public final class AtlasPacker {
+    /**
+     * Largest width/height of a page, kept within the
+     * texture size supported by older graphics cards
+     */
+    public static final int PAGE_SIZE = 2048;
+    /**
+     * Directory the atlas pages and index are written to
+     */
+    public static final String DIRECTORY = "./res/atlas";
+    public static final String INDEX_FILE = "atlas.txt";
+    /**
+     * Each image's edge pixels are repeated this far around it so
+     * scaled sprites never sample a neighbouring image
+     */
+    private static final int EXTRUDE = 1;
+
+    private static class Entry {
+        final String path;
+        final BufferedImage image;
+        int page, x, y;
+
+        Entry(String path, BufferedImage image) {
+            this.path = path;
+            this.image = image;
+        }
+    }
+
+    private AtlasPacker() {
+
+    }
+
+    /**
+     * @param page page number
+     * @return path of the image for an atlas page
+     */
+    public static String getPagePath(int page) {
+        return DIRECTORY + "/atlas" + page + ".png";
+    }
+
+    /**
+     * @param path path to an image
+     * @return the path in the form used as an index key,
+     * e.g. "./res/Car.png" becomes "res/Car.png"
+     */
+    public static String normalise(Path path) {
+        return path.normalize().toString().replace('\\', '/');
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path res = Paths.get("./res");
+        Path out = Paths.get(DIRECTORY);
+
+        List<Entry> entries = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> s = Files.walk(res)) {
+            files = s.filter(p -> !p.startsWith(out))
+                .filter(p -> p.toString().endsWith(".png"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        for (Path p : files) {
+            BufferedImage image = ImageIO.read(p.toFile());
+            int max = PAGE_SIZE - EXTRUDE * 2;
+            if (image.getWidth() > max || image.getHeight() > max) {
+                System.out.println("Leaving " + p + " loose, too large for a page");
+                continue;
+            }
+            entries.add(new Entry(normalise(p), image));
+        }
+
+        //tallest first so each shelf wastes as little height as possible
+        entries.sort((a, b) -> {
+            int h = b.image.getHeight() - a.image.getHeight();
+            return h != 0 ? h : b.image.getWidth() - a.image.getWidth();
+        });
+        int pageCount = pack(entries);
+
+        Files.createDirectories(out);
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(out, "atlas*.png")) {
+            for (Path p : old)
+                Files.delete(p);
+        }
+        for (int page = 0; page < pageCount; page++)
+            writePage(entries, page);
+        writeIndex(entries, out.resolve(INDEX_FILE));
+
+        System.out.println(
+            "Packed " + entries.size() + " images into " +
+            pageCount + " atlas page(s) in " + out
+        );
+    }
+
+    /**
+     * Place images on shelves, left to right then top to bottom,
+     * starting a new page when one fills up
+     * @param entries images sorted tallest first
+     * @return number of pages used
+     */
+    private static int pack(List<Entry> entries) {
+        int page = 0, x = 0, y = 0, shelfHeight = 0;
+        for (Entry e : entries) {
+            int w = e.image.getWidth() + EXTRUDE * 2;
+            int h = e.image.getHeight() + EXTRUDE * 2;
+
+            if (x + w > PAGE_SIZE) {
+                x = 0;
+                y += shelfHeight;
+                shelfHeight = 0;
+            }
+            if (y + h > PAGE_SIZE) {
+                page++;
+                x = 0;
+                y = 0;
+                shelfHeight = 0;
+            }
+
+            e.page = page;
+            e.x = x + EXTRUDE;
+            e.y = y + EXTRUDE;
+            x += w;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+        return entries.isEmpty() ? 0 : page + 1;
+    }
+
+    private static void writePage(List<Entry> entries, int page) throws IOException {
+        int width = 0, height = 0;
+        for (Entry e : entries) {
+            if (e.page != page) continue;
+            width = Math.max(width, e.x + e.image.getWidth() + EXTRUDE);
+            height = Math.max(height, e.y + e.image.getHeight() + EXTRUDE);
+        }
+
+        BufferedImage atlas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (Entry e : entries) {
+            if (e.page != page) continue;
+            int w = e.image.getWidth();
+            int h = e.image.getHeight();
+            for (int y = -EXTRUDE; y < h + EXTRUDE; y++) {
+                for (int x = -EXTRUDE; x < w + EXTRUDE; x++) {
+                    int sx = Math.min(Math.max(x, 0), w - 1);
+                    int sy = Math.min(Math.max(y, 0), h - 1);
+                    atlas.setRGB(e.x + x, e.y + y, e.image.getRGB(sx, sy));
+                }
+            }
+        }
+        ImageIO.write(atlas, "png", Paths.get(getPagePath(page)).toFile());
+    }
+
+    private static void writeIndex(List<Entry> entries, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("# Generated by AtlasPacker: path page left top width height");
+            writer.newLine();
+            for (Entry e : entries) {
+                writer.write(
+                    e.path + " " + e.page + " " + e.x + " " + e.y + " " +
+                    e.image.getWidth() + " " + e.image.getHeight()
+                );
+                writer.newLine();
+            }
+        }
+    }
+}
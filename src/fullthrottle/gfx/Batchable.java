@@ -0,0 +1,18 @@
+package fullthrottle.gfx;
+
+import org.jsfml.graphics.RenderStates;
+
+/**
+ * Implemented by drawables that can hand their quads to a
+ * SpriteBatch instead of drawing them straight to the target,
+ * so the Renderer can merge them with their neighbours' quads
+ */
+public interface Batchable {
+    /**
+     * Add everything this object would draw to the batch, in the
+     * same order draw(RenderTarget, RenderStates) would draw it
+     * @param batch batch to add to
+     * @param states RenderStates the object would be drawn with
+     */
+    public void batch(SpriteBatch batch, RenderStates states);
+}
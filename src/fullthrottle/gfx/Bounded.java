@@ -0,0 +1,17 @@
+package fullthrottle.gfx;
+
+import org.jsfml.graphics.FloatRect;
+
+/**
+ * Implemented by drawables that can tell the Renderer the area they
+ * cover, so they can be skipped while they are off screen
+ * Drawables that don't implement this are always drawn
+ */
+public interface Bounded {
+    /**
+     * Get the area covered when drawn, called by the Renderer every
+     * frame so should return a cached rect rather than making one
+     * @return bounds in world coordinates
+     */
+    public FloatRect getBounds();
+}
@@ -0,0 +1,15 @@
+package fullthrottle.gfx;
+
+/**
+ * Implemented by drawables that know whether they've changed since
+ * they were last drawn, so a cached Renderer layer can keep using
+ * its offscreen copy until one of its objects changes
+ * Drawables that aren't Cacheable are treated as always changed
+ */
+public interface Cacheable {
+    /**
+     * @return true if the object would look different
+     * to when it was last drawn
+     */
+    public boolean isDirty();
+}
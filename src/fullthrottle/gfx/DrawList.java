@@ -0,0 +1,269 @@
+package fullthrottle.gfx;
+
+import java.util.Arrays;
+
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.ConstFont;
+import org.jsfml.graphics.RenderStates;
+import org.jsfml.graphics.Text;
+import org.jsfml.graphics.Transform;
+import org.jsfml.graphics.Vertex;
+
+/**
+ * The draw calls of a frame, recorded layer by layer by the Renderer
+ * so they can be drawn later, on another thread, while the objects
+ * they were recorded from carry on changing
+ * Vertices, RenderStates and transforms can't be changed once made,
+ * so only references to them are copied; text is copied by value
+ * The arrays are kept and reused after clear(), so recording
+ * the same scene each frame allocates nothing
+ */
+public final class DrawList {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final byte VERTICES = 0;
+    private static final byte TEXT = 1;
+
+    private Vertex[] vertices = new Vertex[INITIAL_CAPACITY * 16];
+    private int vertexCount;
+
+    /**
+     * For vertices the first one and how many, for
+     * text its index in the text arrays
+     */
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private RenderStates[] states = new RenderStates[INITIAL_CAPACITY];
+    private int count;
+
+    private String[] strings = new String[INITIAL_CAPACITY];
+    private ConstFont[] fonts = new ConstFont[INITIAL_CAPACITY];
+    private int[] characterSizes = new int[INITIAL_CAPACITY];
+    private int[] styles = new int[INITIAL_CAPACITY];
+    private Color[] colors = new Color[INITIAL_CAPACITY];
+    private Transform[] transforms = new Transform[INITIAL_CAPACITY];
+    private int textCount;
+
+    /**
+     * Each layer is the range of draw calls from its start
+     * to its end, along with what the Renderer needs to
+     * draw it and count it in the stats
+     */
+    private int[] layerDepths = new int[16];
+    private int[] layerScopes = new int[16];
+    private int[] layerStarts = new int[16];
+    private int[] layerEnds = new int[16];
+    private Renderer.LayerCache[] layerCaches = new Renderer.LayerCache[16];
+    private int[] layerVersions = new int[16];
+    private int[] layerDrawn = new int[16];
+    private int[] layerCulled = new int[16];
+    private int[] layerSubmitted = new int[16];
+    private int layerCount;
+
+    /**
+     * Remove everything recorded, keeping the allocated space
+     */
+    public void clear() {
+        Arrays.fill(vertices, 0, vertexCount, null);
+        Arrays.fill(states, 0, count, null);
+        Arrays.fill(strings, 0, textCount, null);
+        Arrays.fill(fonts, 0, textCount, null);
+        Arrays.fill(colors, 0, textCount, null);
+        Arrays.fill(transforms, 0, textCount, null);
+        Arrays.fill(layerCaches, 0, layerCount, null);
+        vertexCount = 0;
+        count = 0;
+        textCount = 0;
+        layerCount = 0;
+    }
+
+    /**
+     * Record a draw call of QUADS vertices
+     * @param v array holding the vertices
+     * @param offset index of the first vertex
+     * @param length number of vertices
+     * @param rs RenderStates to draw with
+     */
+    void addVertices(Vertex[] v, int offset, int length, RenderStates rs) {
+        if (vertexCount + length > vertices.length)
+            vertices = Arrays.copyOf(
+                vertices, Math.max(vertices.length * 2, vertexCount + length)
+            );
+        System.arraycopy(v, offset, vertices, vertexCount, length);
+
+        int i = add(VERTICES, rs);
+        offsets[i] = vertexCount;
+        lengths[i] = length;
+        vertexCount += length;
+    }
+
+    /**
+     * Record some text as it is now
+     * @param t text to copy
+     * @param transform the text's transform combined
+     * with the one it's drawn with
+     * @param rs RenderStates to draw with, the transform is ignored
+     */
+    void addText(Text t, Transform transform, RenderStates rs) {
+        if (textCount == strings.length) {
+            int capacity = textCount * 2;
+            strings = Arrays.copyOf(strings, capacity);
+            fonts = Arrays.copyOf(fonts, capacity);
+            characterSizes = Arrays.copyOf(characterSizes, capacity);
+            styles = Arrays.copyOf(styles, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            transforms = Arrays.copyOf(transforms, capacity);
+        }
+        strings[textCount] = t.getString();
+        fonts[textCount] = t.getFont();
+        characterSizes[textCount] = t.getCharacterSize();
+        styles[textCount] = t.getStyle();
+        colors[textCount] = t.getColor();
+        transforms[textCount] = transform;
+
+        int i = add(TEXT, rs);
+        offsets[i] = textCount++;
+    }
+
+    /**
+     * Start recording a layer, every draw call
+     * until endLayer() is part of it
+     * @param depth depth of the layer
+     * @param scope profiler scope of the layer
+     * @param cache offscreen copy of the layer, null if it isn't cached
+     * @param version changes whenever a cached layer has changed
+     */
+    void beginLayer(int depth, int scope, Renderer.LayerCache cache, int version) {
+        if (layerCount == layerDepths.length) {
+            int capacity = layerCount * 2;
+            layerDepths = Arrays.copyOf(layerDepths, capacity);
+            layerScopes = Arrays.copyOf(layerScopes, capacity);
+            layerStarts = Arrays.copyOf(layerStarts, capacity);
+            layerEnds = Arrays.copyOf(layerEnds, capacity);
+            layerCaches = Arrays.copyOf(layerCaches, capacity);
+            layerVersions = Arrays.copyOf(layerVersions, capacity);
+            layerDrawn = Arrays.copyOf(layerDrawn, capacity);
+            layerCulled = Arrays.copyOf(layerCulled, capacity);
+            layerSubmitted = Arrays.copyOf(layerSubmitted, capacity);
+        }
+        layerDepths[layerCount] = depth;
+        layerScopes[layerCount] = scope;
+        layerStarts[layerCount] = count;
+        layerCaches[layerCount] = cache;
+        layerVersions[layerCount] = version;
+    }
+
+    /**
+     * Finish recording the layer started by beginLayer()
+     * @param drawn objects passed to the batch
+     * @param culled objects skipped for being off screen
+     * @param submitted sprites, arrays and drawables submitted
+     */
+    void endLayer(int drawn, int culled, int submitted) {
+        layerEnds[layerCount] = count;
+        layerDrawn[layerCount] = drawn;
+        layerCulled[layerCount] = culled;
+        layerSubmitted[layerCount] = submitted;
+        layerCount++;
+    }
+
+    /**
+     * Copy a recorded text into a Text to draw it, only
+     * setting what's different to what it held before
+     * @param i index returned by getOffset() for the text
+     * @param t text to copy into
+     */
+    void copyText(int i, Text t) {
+        if (!strings[i].equals(t.getString())) t.setString(strings[i]);
+        if (fonts[i] != t.getFont()) t.setFont(fonts[i]);
+        if (characterSizes[i] != t.getCharacterSize()) t.setCharacterSize(characterSizes[i]);
+        if (styles[i] != t.getStyle()) t.setStyle(styles[i]);
+        if (!colors[i].equals(t.getColor())) t.setColor(colors[i]);
+    }
+
+    /**
+     * @return number of draw calls recorded
+     */
+    public int size() {
+        return count;
+    }
+
+    boolean isText(int i) {
+        return kinds[i] == TEXT;
+    }
+
+    Vertex[] getVertices() {
+        return vertices;
+    }
+
+    int getOffset(int i) {
+        return offsets[i];
+    }
+
+    int getLength(int i) {
+        return lengths[i];
+    }
+
+    RenderStates getStates(int i) {
+        return states[i];
+    }
+
+    Transform getTextTransform(int text) {
+        return transforms[text];
+    }
+
+    int getLayerCount() {
+        return layerCount;
+    }
+
+    int getLayerDepth(int layer) {
+        return layerDepths[layer];
+    }
+
+    int getLayerScope(int layer) {
+        return layerScopes[layer];
+    }
+
+    int getLayerStart(int layer) {
+        return layerStarts[layer];
+    }
+
+    int getLayerEnd(int layer) {
+        return layerEnds[layer];
+    }
+
+    Renderer.LayerCache getLayerCache(int layer) {
+        return layerCaches[layer];
+    }
+
+    int getLayerVersion(int layer) {
+        return layerVersions[layer];
+    }
+
+    int getLayerDrawn(int layer) {
+        return layerDrawn[layer];
+    }
+
+    int getLayerCulled(int layer) {
+        return layerCulled[layer];
+    }
+
+    int getLayerSubmitted(int layer) {
+        return layerSubmitted[layer];
+    }
+
+    private int add(byte kind, RenderStates rs) {
+        if (count == kinds.length) {
+            int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            states = Arrays.copyOf(states, capacity);
+        }
+        int i = count++;
+        kinds[i] = kind;
+        states[i] = rs;
+        return i;
+    }
+}
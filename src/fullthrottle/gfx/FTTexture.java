@@ -5,6 +5,8 @@ import org.jsfml.graphics.Texture;
 import java.nio.file.Paths;
 import java.io.IOException;
 
+import fullthrottle.debug.Trace;
+
 /**
  * Implementation of <a href="https://jsfml.sfmlprojects.org/javadoc/org/jsfml/graphics/Texture.html">org.jsfml.graphics.Texture</a> that can take a String path to a source image
  */
@@ -15,10 +17,12 @@ public class FTTexture extends Texture {
      */
     public FTTexture(String path) {
         super();
+        long start = Trace.now();
         try {
             loadFromFile(Paths.get(path));
         } catch (IOException e) {
             e.printStackTrace();
         }
+        Trace.complete("Texture Load", "asset", start, path);
     }
 }
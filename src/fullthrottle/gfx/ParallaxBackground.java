@@ -10,6 +10,7 @@ import org.jsfml.graphics.FloatRect;
 import org.jsfml.graphics.RenderTarget;
 import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.Sprite;
+import org.jsfml.graphics.Transform;
 
 import org.jsfml.system.Vector2f;
 
@@ -25,7 +26,7 @@ import java.util.HashMap;
  * Has internal ordering layers but rendered on one layer by 
  * the main Renderer (could probably be changed in future if needed)
  */
-public class ParallaxBackground implements Drawable, Updatable {
+public class ParallaxBackground implements Drawable, Batchable, Updatable {
     
     /**
      * Thrown if the user attempts to add an element to a layer &lt;= 0
@@ -53,16 +54,27 @@ public class ParallaxBackground implements Drawable, Updatable {
         private int zIndex;
 
         private FloatRect bounds;
+        private float previousX;
 
         private float loopFrequency;
 
+        /**
+         * States the element was last drawn with, and the states
+         * and offset they were made from, so they're only made
+         * again when the element has moved
+         */
+        private RenderStates drawStates;
+        private RenderStates baseStates;
+        private float drawOffset;
+
         public BackgroundElement(Sprite s, int z, float freq) {
             this.sprite = s;
             this.zIndex = z;
             this.bounds = sprite.getGlobalBounds();
+            this.previousX = bounds.left;
             this.loopFrequency = freq;
 
-            this.loopSprite = new Sprite(s.getTexture());
+            this.loopSprite = new Sprite(s.getTexture(), s.getTextureRect());
             loopSprite.setPosition(s.getPosition());
             loopSprite.setScale(s.getScale());
         }
@@ -74,7 +86,8 @@ public class ParallaxBackground implements Drawable, Updatable {
          * used to make sure edges are looped if visible
          */
         public void update(FloatRect view) {
-            float dX = speed * TimeManager.deltaTime() / zIndex;
+            previousX = sprite.getPosition().x;
+            float dX = speed * TimeManager.game().deltaTime() / zIndex;
             sprite.move(dX * direction.directionMultiplier, 0);
 
             bounds = sprite.getGlobalBounds();
@@ -86,24 +99,39 @@ public class ParallaxBackground implements Drawable, Updatable {
             if (offscreen) {
                 int d = direction.directionMultiplier;
                 sprite.move(loopFrequency * -d, 0);
+                previousX += loopFrequency * -d;
             }
         }
 
         /**
-         * Draw element to RenderTarget and any copies
+         * Add element to the batch along with any copies
          * needed for looping/repeating
-         * @param target RenderTarget to draw to
+         * @param batch batch to add to
          * @param states RenderStates to use
          * @param view current viewrect of the target
          */
-        public void draw(
-            RenderTarget target, RenderStates states,
+        public void batch(
+            SpriteBatch batch, RenderStates states,
             FloatRect view
         ) {
-            sprite.draw(target, states);
+            //offset from the current position to the interpolated one
+            float offset = TimeManager.interpolate(
+                previousX, sprite.getPosition().x
+            ) - sprite.getPosition().x;
+            if (drawStates == null || states != baseStates || offset != drawOffset) {
+                drawStates = new RenderStates(
+                    states, Transform.translate(states.transform, offset, 0)
+                );
+                baseStates = states;
+                drawOffset = offset;
+            }
+            states = drawStates;
+            float viewLeft = view.left - offset;
+
+            batch.addSprite(sprite, states);
 
             int d = direction.directionMultiplier;
-            float viewRight = view.left + view.width;
+            float viewRight = viewLeft + view.width;
             float loopX = bounds.left;
 
             /*
@@ -113,7 +141,7 @@ public class ParallaxBackground implements Drawable, Updatable {
             */
             boolean spaceLeft = loopX <= viewRight - bounds.width;
             spaceLeft &= direction == Direction.LEFT;
-            boolean spaceRight = loopX > view.left;
+            boolean spaceRight = loopX > viewLeft;
             spaceRight &= direction == Direction.RIGHT;
 
             /*
@@ -123,11 +151,11 @@ public class ParallaxBackground implements Drawable, Updatable {
             while (spaceLeft ^ spaceRight) {
                 float newX = loopX - d * loopFrequency;
                 loopSprite.setPosition(newX, bounds.top);
-                loopSprite.draw(target, states);
+                batch.addSprite(loopSprite, states);
                 loopX = loopSprite.getGlobalBounds().left;
                 //update space flags, no need to recheck direction
                 spaceLeft &= loopX <= viewRight - bounds.width;
-                spaceRight &= loopX > view.left;
+                spaceRight &= loopX > viewLeft;
             }
         }
     }
@@ -248,10 +276,21 @@ public class ParallaxBackground implements Drawable, Updatable {
 
     @Override
     public void draw(RenderTarget target, RenderStates states) {
+        SpriteBatch.drawNow(this, target, states);
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates states) {
         FloatRect vBounds = FullThrottle.getViewRect();
-        
-        for (int i : zLayers)
-            for (BackgroundElement e : elements.get(i))
-                e.draw(target, states, vBounds);
+
+        //zLayers is back to front, so skipping the first layers
+        //leaves the back-most ones
+        int skip = 0;
+        if (QualityGovernor.atLeast(QualityGovernor.Level.FEWER_PARALLAX_LAYERS))
+            skip = Math.max(zLayers.size() - QualityGovernor.REDUCED_PARALLAX_LAYERS, 0);
+
+        for (int l = 0; l < zLayers.size() - skip; l++)
+            for (BackgroundElement e : elements.get(zLayers.get(l)))
+                e.batch(batch, states, vBounds);
     }
 }
@@ -0,0 +1,168 @@
+package fullthrottle.gfx;
+
+import fullthrottle.debug.Trace;
+import fullthrottle.util.FramePacer;
+
+/**
+ * Class to keep frames within budget on slower machines by turning
+ * down optional rendering work, watches the average work time of
+ * recent frames and steps the quality level down when it goes over
+ * budget and back up when there is headroom again
+ * Systems check the current level with atLeast() when drawing
+ * This is a static class and shouldn't be instantiated
+ */
+public final class QualityGovernor {
+
+    /**
+     * Quality levels in the order optional work is turned off,
+     * each level includes the reductions of the levels before it
+     */
+    public enum Level {
+        /**
+         * Everything drawn as normal
+         */
+        FULL,
+
+        /**
+         * Only the back-most REDUCED_PARALLAX_LAYERS
+         * parallax background layers are drawn
+         */
+        FEWER_PARALLAX_LAYERS,
+
+        /**
+         * Obstacle animations run at REDUCED_ANIMATION_RATE
+         */
+        SLOWER_ANIMATIONS,
+
+        /**
+         * The full-screen health alert isn't drawn
+         */
+        NO_HEALTH_ALERT,
+
+        /**
+         * The scene is drawn at REDUCED_RENDER_SCALE and scaled up
+         */
+        LOW_RESOLUTION
+    }
+
+    public static final int REDUCED_PARALLAX_LAYERS = 1;
+    public static final float REDUCED_ANIMATION_RATE = 0.5f;
+    public static final float REDUCED_RENDER_SCALE = 0.5f;
+
+    /**
+     * Number of frames averaged when comparing against the budget
+     */
+    private static final int WINDOW = 60;
+    /**
+     * Quality steps down when average work goes over this
+     * fraction of the frame budget
+     */
+    private static final float STEP_DOWN_THRESHOLD = 0.9f;
+    /**
+     * Quality steps up when average work stays under this
+     * fraction of the frame budget
+     */
+    private static final float STEP_UP_THRESHOLD = 0.6f;
+    /**
+     * Frames to wait after a change before stepping down again,
+     * gives the average time to reflect the new level
+     */
+    private static final int STEP_DOWN_COOLDOWN = WINDOW * 2;
+    /**
+     * Frames to wait after a change before stepping up again,
+     * longer than stepping down so the level doesn't bounce
+     */
+    private static final int STEP_UP_COOLDOWN = WINDOW * 5;
+
+    private static final Level[] LEVELS = Level.values();
+
+    private static volatile Level level = Level.FULL;
+    private static boolean enabled = true;
+
+    private static final long[] workTimes = new long[WINDOW];
+    private static int next = 0;
+    private static int count = 0;
+    private static long total = 0;
+    private static int framesSinceChange = 0;
+
+    private QualityGovernor() {
+
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Whether quality has been reduced to at least l
+     * @param l level to compare to
+     * @return true if the current level is l or lower quality
+     */
+    public static boolean atLeast(Level l) {
+        return level.ordinal() >= l.ordinal();
+    }
+
+    /**
+     * @return scale the scene should be drawn at, 1 = full resolution
+     */
+    public static float getRenderScale() {
+        return atLeast(Level.LOW_RESOLUTION) ? REDUCED_RENDER_SCALE : 1;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turn the governor on or off, turning it off
+     * puts the quality back to FULL
+     * @param e whether the governor should change quality
+     */
+    public static void setEnabled(boolean e) {
+        enabled = e;
+        if (!enabled && level != Level.FULL)
+            setLevel(Level.FULL, 0);
+    }
+
+    /**
+     * Should be called once per frame with the time the last frame
+     * spent working, i.e. not including time spent waiting
+     * @param workTime work time in seconds (FramePacer.getWorkTime())
+     */
+    public static void update(float workTime) {
+        if (!enabled) return;
+
+        long work = (long)(workTime * 1e9);
+        total += work - workTimes[next];
+        workTimes[next] = work;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) count++;
+        framesSinceChange++;
+
+        if (count < WINDOW) return;
+
+        long budget = 1_000_000_000L / FramePacer.getTargetFramerate();
+        long average = total / WINDOW;
+        int l = level.ordinal();
+
+        if (average > budget * STEP_DOWN_THRESHOLD) {
+            if (l < LEVELS.length - 1 && framesSinceChange >= STEP_DOWN_COOLDOWN)
+                setLevel(LEVELS[l + 1], average);
+        } else if (average < budget * STEP_UP_THRESHOLD) {
+            if (l > 0 && framesSinceChange >= STEP_UP_COOLDOWN)
+                setLevel(LEVELS[l - 1], average);
+        }
+    }
+
+    private static void setLevel(Level l, long averageWork) {
+        System.out.println(String.format(
+            "Quality %s -> %s (average work %.2fms, budget %.2fms)",
+            level, l, averageWork / 1e6f,
+            1000f / FramePacer.getTargetFramerate()
+        ));
+        Trace.instant("Quality Change", "quality", level + " -> " + l);
+
+        level = l;
+        framesSinceChange = 0;
+    }
+}
@@ -0,0 +1,253 @@
+package fullthrottle.gfx;
+
+import java.util.Arrays;
+
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.ConstTexture;
+import org.jsfml.graphics.IntRect;
+import org.jsfml.graphics.RenderStates;
+import org.jsfml.graphics.Sprite;
+import org.jsfml.graphics.Text;
+import org.jsfml.graphics.Transform;
+import org.jsfml.system.Vector2f;
+
+/**
+ * A list of quad, sprite and text commands recorded while updating
+ * and replayed into a SpriteBatch when drawing, so nothing has to
+ * be worked out (or changed) inside draw()
+ * Sprites are turned into quads as they're recorded, so a sprite
+ * can be moved again straight away without changing what's drawn
+ * Commands are stored in preallocated arrays that are reused after
+ * clear(), so recording the same scene each frame allocates nothing
+ * Each command has a sort key, replay() draws lower keys first and
+ * keeps the recorded order of commands with the same key
+ */
+public class RenderCommandBuffer {
+    private static final int INITIAL_CAPACITY = 256;
+    /**
+     * x, y, u, v for each of the 4 corners of a quad
+     */
+    private static final int QUAD_FLOATS = 16;
+
+    private static final byte QUAD = 0;
+    private static final byte TEXT = 1;
+
+    private byte[] kinds;
+    private int[] keys;
+    private ConstTexture[] textures;
+    private Color[] colors;
+    private float[] quads;
+    private Text[] texts;
+    /**
+     * Indices of the commands in the order they're replayed
+     */
+    private int[] order;
+    private int count;
+    private boolean sorted;
+
+    private int key;
+    private int quadCount;
+    private int textCount;
+
+    public RenderCommandBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of commands to allocate space for,
+     * the buffer grows if more are recorded
+     */
+    public RenderCommandBuffer(int capacity) {
+        capacity = Math.max(capacity, 1);
+        kinds = new byte[capacity];
+        keys = new int[capacity];
+        textures = new ConstTexture[capacity];
+        colors = new Color[capacity];
+        quads = new float[capacity * QUAD_FLOATS];
+        texts = new Text[capacity];
+        order = new int[capacity];
+        clear();
+    }
+
+    /**
+     * Remove every command, keeping the allocated space
+     */
+    public void clear() {
+        Arrays.fill(textures, 0, count, null);
+        Arrays.fill(colors, 0, count, null);
+        Arrays.fill(texts, 0, count, null);
+        count = 0;
+        sorted = true;
+        key = 0;
+        quadCount = 0;
+        textCount = 0;
+    }
+
+    /**
+     * Set the sort key given to commands recorded from now on
+     * @param key lower keys are drawn first
+     */
+    public void setKey(int key) {
+        this.key = key;
+    }
+
+    /**
+     * Record an axis aligned quad
+     * @param texture texture to draw from, null for none
+     * @param x left of the quad
+     * @param y top of the quad
+     * @param width width of the quad
+     * @param height height of the quad
+     * @param u left of the area of the texture to draw
+     * @param v top of the area of the texture to draw
+     * @param texWidth width of the area of the texture
+     * @param texHeight height of the area of the texture
+     * @param color colour to multiply the texture by
+     */
+    public void addQuad(
+        ConstTexture texture, float x, float y, float width, float height,
+        float u, float v, float texWidth, float texHeight, Color color
+    ) {
+        int i = add(QUAD, texture, color);
+        int q = i * QUAD_FLOATS;
+        setCorner(q, x, y, u, v);
+        setCorner(q + 4, x + width, y, u + texWidth, v);
+        setCorner(q + 8, x + width, y + height, u + texWidth, v + texHeight);
+        setCorner(q + 12, x, y + height, u, v + texHeight);
+        quadCount++;
+    }
+
+    /**
+     * Record the quad a sprite would draw, using its current
+     * texture rect, transform and colour
+     * @param s sprite to record
+     */
+    public void addSprite(Sprite s) {
+        int i = add(QUAD, s.getTexture(), s.getColor());
+        int q = i * QUAD_FLOATS;
+
+        IntRect r = s.getTextureRect();
+        Transform t = s.getTransform();
+        float w = Math.abs(r.width);
+        float h = Math.abs(r.height);
+        float u0 = r.left, v0 = r.top;
+        float u1 = r.left + r.width, v1 = r.top + r.height;
+
+        setCorner(q, t.transformPoint(0, 0), u0, v0);
+        setCorner(q + 4, t.transformPoint(w, 0), u1, v0);
+        setCorner(q + 8, t.transformPoint(w, h), u1, v1);
+        setCorner(q + 12, t.transformPoint(0, h), u0, v1);
+        quadCount++;
+    }
+
+    /**
+     * Record some text, which is drawn on its own when replayed
+     * NB: text can't be split into quads, so it's drawn as it is
+     * when replayed rather than when recorded
+     * @param text text to draw
+     */
+    public void addText(Text text) {
+        int i = add(TEXT, null, null);
+        texts[i] = text;
+        textCount++;
+    }
+
+    /**
+     * Put the commands in key order, replay() does this
+     * itself if it hasn't been done since the last command
+     */
+    public void sort() {
+        if (sorted) return;
+
+        //insertion sort, stable and quick when nearly sorted,
+        //which recorded commands usually are
+        for (int i = 1; i < count; i++) {
+            int c = order[i];
+            int j = i - 1;
+            while (j >= 0 && keys[order[j]] > keys[c]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = c;
+        }
+        sorted = true;
+    }
+
+    /**
+     * Add every command to a batch in key order
+     * @param batch batch to add to
+     * @param states RenderStates to draw with, the texture is ignored
+     */
+    public void replay(SpriteBatch batch, RenderStates states) {
+        sort();
+        for (int n = 0; n < count; n++) {
+            int i = order[n];
+            if (kinds[i] == QUAD)
+                batch.addQuad(textures[i], quads, i * QUAD_FLOATS, colors[i], states);
+            else
+                batch.draw(texts[i], states);
+        }
+    }
+
+    /**
+     * @return number of commands recorded since clear()
+     */
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return number of quads and sprites recorded since clear()
+     */
+    public int getQuadCount() {
+        return quadCount;
+    }
+
+    /**
+     * @return number of texts recorded since clear()
+     */
+    public int getTextCount() {
+        return textCount;
+    }
+
+    private int add(byte kind, ConstTexture texture, Color color) {
+        if (count == kinds.length)
+            grow();
+
+        int i = count++;
+        kinds[i] = kind;
+        keys[i] = key;
+        textures[i] = texture;
+        colors[i] = color;
+        order[i] = i;
+        if (i > 0 && keys[order[i - 1]] > key)
+            sorted = false;
+        return i;
+    }
+
+    private void setCorner(int q, Vector2f position, float u, float v) {
+        setCorner(q, position.x, position.y, u, v);
+    }
+
+    private void setCorner(int q, float x, float y, float u, float v) {
+        quads[q] = x;
+        quads[q + 1] = y;
+        quads[q + 2] = u;
+        quads[q + 3] = v;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        textures = Arrays.copyOf(textures, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        quads = Arrays.copyOf(quads, capacity * QUAD_FLOATS);
+        texts = Arrays.copyOf(texts, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
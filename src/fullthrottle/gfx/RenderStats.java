@@ -0,0 +1,148 @@
+package fullthrottle.gfx;
+
+import java.util.Arrays;
+
+/**
+ * Counts of the work done drawing one frame, filled in by the
+ * Renderer during replay() and read back through Renderer.getStats()
+ * Only touched from the thread drawing
+ */
+public class RenderStats {
+    private int submitted;
+    private int drawCalls;
+    private int vertices;
+    private int textureBinds;
+
+    private int layerCount;
+    private int[] layerDepths = new int[16];
+    private int[] layerDrawn = new int[16];
+    private int[] layerCulled = new int[16];
+    private boolean[] layerCached = new boolean[16];
+
+    /**
+     * Clear every count before a frame is drawn
+     */
+    void reset() {
+        submitted = 0;
+        drawCalls = 0;
+        vertices = 0;
+        textureBinds = 0;
+        layerCount = 0;
+    }
+
+    /**
+     * Add the counts of a batch that has finished drawing
+     */
+    void addBatch(SpriteBatch batch) {
+        submitted += batch.getSubmitted();
+        drawCalls += batch.getDrawCalls();
+        vertices += batch.getVertices();
+        textureBinds += batch.getTextureBinds();
+    }
+
+    /**
+     * Add the sprites, arrays and drawables submitted
+     * while recording a layer that was replayed
+     */
+    void addSubmitted(int n) {
+        submitted += n;
+    }
+
+    /**
+     * Record how many objects of a layer were drawn and culled
+     * @param depth depth of the layer
+     * @param drawn objects passed to the batch
+     * @param culled objects skipped for being off screen
+     * @param cached true if the layer was drawn from its cache
+     * rather than by replaying what was recorded
+     */
+    void addLayer(int depth, int drawn, int culled, boolean cached) {
+        if (layerCount == layerDepths.length) {
+            int capacity = layerCount * 2;
+            layerDepths = Arrays.copyOf(layerDepths, capacity);
+            layerDrawn = Arrays.copyOf(layerDrawn, capacity);
+            layerCulled = Arrays.copyOf(layerCulled, capacity);
+            layerCached = Arrays.copyOf(layerCached, capacity);
+        }
+        layerDepths[layerCount] = depth;
+        layerDrawn[layerCount] = drawn;
+        layerCulled[layerCount] = culled;
+        layerCached[layerCount] = cached;
+        layerCount++;
+    }
+
+    /**
+     * @return number of sprites, arrays and drawables submitted,
+     * i.e. how many draw calls there would be without batching
+     */
+    public int getSubmitted() {
+        return submitted;
+    }
+
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * @return number of vertices sent in draw calls, not counting
+     * drawables that aren't batched (e.g. text)
+     */
+    public int getVertices() {
+        return vertices;
+    }
+
+    /**
+     * @return number of draw calls using a different
+     * texture to the draw call before
+     */
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+    /**
+     * @return number of layers drawn, disabled layers aren't counted
+     */
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    /**
+     * @param i index of the layer, from 0 (back) to getLayerCount() - 1 (front)
+     * @return depth of the layer
+     */
+    public int getLayerDepth(int i) {
+        return layerDepths[i];
+    }
+
+    public int getLayerDrawn(int i) {
+        return layerDrawn[i];
+    }
+
+    public int getLayerCulled(int i) {
+        return layerCulled[i];
+    }
+
+    public boolean isLayerCached(int i) {
+        return layerCached[i];
+    }
+
+    /**
+     * @return number of objects drawn across every layer
+     */
+    public int getDrawn() {
+        int drawn = 0;
+        for (int i = 0; i < layerCount; i++)
+            drawn += layerDrawn[i];
+        return drawn;
+    }
+
+    /**
+     * @return number of objects culled across every layer
+     */
+    public int getCulled() {
+        int culled = 0;
+        for (int i = 0; i < layerCount; i++)
+            culled += layerCulled[i];
+        return culled;
+    }
+}
@@ -1,23 +1,33 @@
 package fullthrottle.gfx;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 
 import org.jsfml.graphics.BlendMode;
+import org.jsfml.graphics.Color;
 import org.jsfml.graphics.ConstView;
 import org.jsfml.graphics.Drawable;
 import org.jsfml.graphics.FloatRect;
 import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.RenderTarget;
+import org.jsfml.graphics.RenderTexture;
+import org.jsfml.graphics.Shader;
+import org.jsfml.graphics.ShaderSourceException;
+import org.jsfml.graphics.Sprite;
+import org.jsfml.graphics.TextureCreationException;
+import org.jsfml.graphics.Transform;
 import org.jsfml.system.Vector2f;
+import org.jsfml.system.Vector2i;
+
+import fullthrottle.debug.Profiler;
 
 /**
  * Class for handling rendering, including ordering of sprites No need to
  * instantiate - all methods static
+ * A frame is recorded into a DrawList by record(), on the thread that
+ * changes the objects, then drawn by replay(), which only reads the
+ * list so can run on another thread while the next frame is recorded
  */
 public final class Renderer {
 
@@ -25,107 +35,444 @@ public final class Renderer {
     private static int DEFAULT_RENDER_LAYER = 1;
 
     /**
-     * Holds all required data for an object to be rendered
+     * Holds all required data for an object to be rendered, returned
+     * by addDrawable as a handle for removing the object again
      */
-    private static class RenderObject {
+    public static final class RenderObject {
         /**
          * Element to be drawn
          */
-        public Drawable drawable;
+        private final Drawable drawable;
         /**
          * Render states to be passed to Drawable.draw
          */
-        public RenderStates rs;
+        private final RenderStates rs;
+        /**
+         * Where to get the drawable's bounds from,
+         * null if it's always on screen
+         */
+        private final Bounded bounded;
+        /**
+         * Where to check if the drawable has changed,
+         * null if it should be treated as always changed
+         */
+        private final Cacheable cacheable;
+
+        /**
+         * Layer the object is in, null once removed
+         */
+        private Layer layer;
+        private RenderObject previous, next;
 
         /**
          * Called from addDrawable
          * 
          * @param d  object implementing JSFML's Drawable
          * @param rs RenderStates for drawing
+         * @param alwaysOnScreen if true the drawable is never culled
          */
-        public RenderObject(Drawable d, RenderStates rs) {
+        private RenderObject(Drawable d, RenderStates rs, boolean alwaysOnScreen) {
             this.drawable = d;
             this.rs = rs;
+            this.bounded = alwaysOnScreen ? null : (Bounded)d;
+            this.cacheable = d instanceof Cacheable ? (Cacheable)d : null;
         }
 
         /**
-         * Invokes the drawables draw method
+         * @return true if the drawable might look different
+         * to when it was last drawn
+         */
+        private boolean isDirty() {
+            return cacheable == null || cacheable.isDirty();
+        }
+
+        /**
+         * Passes the drawable to the batch, which batches it
+         * if it can or otherwise draws it straight away
          * 
-         * @param target RenderTarget to be drawn to (e.g. RenderWindow)
+         * @param batch batch for the target being drawn to
          */
-        public void draw(RenderTarget target) {
-            drawable.draw(target, rs);
+        private void draw(SpriteBatch batch) {
+            batch.draw(drawable, rs);
         }
 
-        public boolean onscreen(FloatRect view) {
-            FloatRect bounds = new FloatRect(0, 0, 0, 0);
-            Class<?> c = drawable.getClass();
-            Method gB = null;
+        /**
+         * Same test as FloatRect.intersection(view) != null
+         * without making a new rect
+         * @param view current viewrect of the target
+         * @return true if the drawable might be visible
+         */
+        private boolean onscreen(FloatRect view) {
+            if (bounded == null) return true;
 
-            try {
-                gB = c.getMethod("getGlobalBounds");
-            } catch (NoSuchMethodException e) {
-                try {
-                    gB = c.getMethod("getBounds");
-                } catch (NoSuchMethodException ex) {
-                    gB = null;
-                }
+            FloatRect b = bounded.getBounds();
+            float left = Math.max(b.left, view.left);
+            float right = Math.min(b.left + b.width, view.left + view.width);
+            float top = Math.max(b.top, view.top);
+            float bottom = Math.min(b.top + b.height, view.top + view.height);
+            return left < right && top < bottom;
+        }
+    }
+
+    /**
+     * The objects at one depth, linked in the order they were added
+     * so they're drawn in that order and any of them can be removed
+     * without searching or shifting the rest
+     */
+    private static class Layer {
+        private final int depth;
+        /**
+         * Profiler scope for the layer
+         */
+        private final int scope;
+        private RenderObject first, last;
+        private boolean enabled = true;
+        /**
+         * Offscreen copy of the layer, null if it isn't cached
+         */
+        private LayerCache cache;
+
+        private Layer(int depth) {
+            this.depth = depth;
+            this.scope = Profiler.register("Layer " + depth);
+        }
+
+        private void add(RenderObject o) {
+            o.layer = this;
+            o.previous = last;
+            o.next = null;
+            if (last == null)
+                first = o;
+            else
+                last.next = o;
+            last = o;
+            if (cache != null) cache.markDirty();
+        }
+
+        private void remove(RenderObject o) {
+            if (o.previous == null)
+                first = o.next;
+            else
+                o.previous.next = o.next;
+            if (o.next == null)
+                last = o.previous;
+            else
+                o.next.previous = o.previous;
+
+            o.layer = null;
+            o.previous = null;
+            o.next = null;
+            if (cache != null) cache.markDirty();
+        }
+    }
+
+    /**
+     * Offscreen copy of a cached layer, only redrawn once the layer
+     * has changed and then stayed the same for a frame, otherwise
+     * drawn to the target as a single sprite
+     * While objects are changing every frame (e.g. fading) the layer
+     * is drawn directly, as redrawing the copy would cost more
+     * Changes are found by record() and passed on as a version, as
+     * the frames between two that are replayed may not be replayed
+     */
+    static final class LayerCache {
+        /**
+         * Undoes the alpha the layer's colours were multiplied by when
+         * blended into the transparent texture, so drawing the copy
+         * with normal alpha blending gives the same result as drawing
+         * the layer directly
+         */
+        private static final String UNPREMULTIPLY_SHADER =
+            "uniform sampler2D texture;\n" +
+            "void main() {\n" +
+            "    vec4 c = texture2D(texture, gl_TexCoord[0].xy);\n" +
+            "    if (c.a > 0.0) c.rgb /= c.a;\n" +
+            "    gl_FragColor = c * gl_Color;\n" +
+            "}";
+
+        private static RenderStates compositeStates;
+        /**
+         * Set if shaders or the texture aren't available,
+         * cached layers are then always drawn directly
+         */
+        private static boolean unsupported = false;
+
+        private RenderTexture texture;
+        private Sprite sprite;
+        /**
+         * Whether the texture holds an up to date copy of the layer
+         */
+        private boolean valid = false;
+        /**
+         * Set by markDirty() to redraw the layer
+         * even if none of its objects have changed
+         */
+        private boolean dirty = true;
+        /**
+         * Increased by record() whenever the layer has changed
+         */
+        private int version;
+        /**
+         * Version of the layer the texture was last checked against,
+         * only used by the thread replaying
+         */
+        private int drawnVersion = -1;
+        private FloatRect view;
+        private Vector2i targetSize;
+
+        /**
+         * Find if the layer has changed since it was last recorded
+         * @param layer objects in the layer
+         * @return version of the layer to record
+         */
+        private int record(Layer layer) {
+            boolean changed = dirty;
+            for (RenderObject o = layer.first; o != null && !changed; o = o.next)
+                changed = o.isDirty();
+
+            if (changed) {
+                dirty = false;
+                version++;
+            }
+            return version;
+        }
+
+        /**
+         * Draw the layer from the cache if nothing in it has changed
+         * @param list list the layer was recorded into
+         * @param layer index of the layer in the list
+         * @param target RenderTarget being drawn to
+         * @param view current viewrect of the target
+         * @return false if the layer must be drawn directly this frame
+         */
+        private boolean draw(DrawList list, int layer, RenderTarget target, FloatRect view) {
+            if (unsupported) return false;
+
+            int version = list.getLayerVersion(layer);
+            if (version != drawnVersion
+                || !view.equals(this.view)
+                || !target.getSize().equals(targetSize)) {
+                drawnVersion = version;
+                valid = false;
+                this.view = view;
+                this.targetSize = target.getSize();
+                return false;
+            }
+
+            if (!valid && !redraw(list, layer, target, view)) return false;
+
+            batch.addSprite(sprite, compositeStates);
+            return true;
+        }
+
+        private void markDirty() {
+            dirty = true;
+        }
+
+        private boolean redraw(DrawList list, int layer, RenderTarget target, FloatRect view) {
+            if (!createTexture()) {
+                unsupported = true;
+                return false;
             }
 
-            if (gB != null)
-                try {
-                    bounds = (FloatRect) gB.invoke(drawable);
-                } catch (IllegalAccessException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                } catch (IllegalArgumentException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                } catch (InvocationTargetException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
+            texture.setView(target.getView());
+            texture.clear(Color.TRANSPARENT);
+            batch.setTarget(texture);
+            batch.replay(list, list.getLayerStart(layer), list.getLayerEnd(layer));
+            batch.setTarget(target);
+            texture.display();
+
+            sprite.setPosition(view.left, view.top);
+            sprite.setScale(
+                view.width / targetSize.x, view.height / targetSize.y
+            );
+            valid = true;
+            return true;
+        }
+
+        private boolean createTexture() {
+            if (texture != null && texture.getSize().equals(targetSize))
+                return true;
+
+            try {
+                if (compositeStates == null) {
+                    if (!Shader.isAvailable()) {
+                        System.out.println("Shaders unavailable, layers won't be cached");
+                        return false;
+                    }
+                    Shader shader = new Shader();
+                    shader.loadFromSource(UNPREMULTIPLY_SHADER, Shader.Type.FRAGMENT);
+                    shader.setParameter("texture", Shader.CURRENT_TEXTURE);
+                    compositeStates = new RenderStates(
+                        BlendMode.ALPHA, Transform.IDENTITY, null, shader
+                    );
                 }
 
-            return bounds.intersection(view) != null || gB == null;
+                RenderTexture t = new RenderTexture();
+                t.create(targetSize.x, targetSize.y);
+                texture = t;
+            } catch (TextureCreationException | ShaderSourceException | IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+            sprite = new Sprite(texture.getTexture());
+            return true;
         }
     }
 
     /**
-     * Stores ArrayLists of objects to render,
-     * indexed by order to be rendered (higher index = further "back")
+     * Layers ordered back to front (highest depth first),
+     * a new layer is inserted in place when first used
      */
-    private static HashMap<Integer, ArrayList<RenderObject>> objects = new HashMap<>();
+    private static ArrayList<Layer> layers = new ArrayList<>();
 
     /**
-     * List of render layers to ensure layers are drawn in order.
-     * Sorted whenever a new layer is added/used
+     * The same layers looked up by depth
      */
-    private static List<Integer> renderLayers = new ArrayList<>();
+    private static HashMap<Integer, Layer> layersByDepth = new HashMap<>();
 
     /**
-     * Loops through the HashMap, ordered by the renderLayers List
-     * Draws from back to front
+     * Batch replaying lists, only used by the thread drawing
+     */
+    private static final SpriteBatch batch = new SpriteBatch();
+    /**
+     * Batch recording lists, only used by the thread recording
+     */
+    private static final SpriteBatch recordBatch = new SpriteBatch();
+    private static final RenderStats stats = new RenderStats();
+    /**
+     * List used by render(), which records and replays straight away
+     */
+    private static final DrawList frame = new DrawList();
+    /**
+     * Objects drawn and culled in the layer being recorded
+     */
+    private static int layerDrawn, layerCulled;
+
+    /**
+     * Records and draws every enabled layer from back to front,
+     * batching consecutive objects that share a texture and render
+     * states within each layer
      * @param target RenderTarget to draw to
      */
     public static void render(RenderTarget target) {
+        record(frame, getViewRect(target));
+        replay(frame, target);
+    }
+
+    /**
+     * Records every enabled layer from back to front, batching
+     * consecutive objects that share a texture and render states
+     * within each layer, replacing whatever the list held before
+     * NB: call from the thread that changes the objects drawn
+     * @param list list to record into
+     * @param view viewrect objects are culled against
+     */
+    public static void record(DrawList list, FloatRect view) {
+        list.clear();
+        recordBatch.begin(list);
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            if (!layer.enabled) continue;
+
+            Profiler.begin(layer.scope);
+            layerDrawn = 0;
+            layerCulled = 0;
+            int submitted = recordBatch.getSubmitted();
+            int version = layer.cache != null ? layer.cache.record(layer) : 0;
+            list.beginLayer(layer.depth, layer.scope, layer.cache, version);
+            drawObjects(layer, view);
+            recordBatch.flush();
+            list.endLayer(layerDrawn, layerCulled, recordBatch.getSubmitted() - submitted);
+            Profiler.end();
+        }
+        recordBatch.end();
+    }
+
+    /**
+     * Draws every layer recorded into a list
+     * @param list list recorded by record()
+     * @param target RenderTarget to draw to
+     */
+    public static void replay(DrawList list, RenderTarget target) {
+        resetStats();
+        replay(list, target, Integer.MAX_VALUE, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Draws the recorded layers between two depths, so parts of the
+     * scene can be drawn to different targets, adding to the stats
+     * NB: call resetStats() first at the start of each frame
+     * @param list list recorded by record()
+     * @param target RenderTarget to draw to
+     * @param backDepth depth of the furthest back layer to draw
+     * @param frontDepth depth of the furthest forward layer to draw
+     */
+    public static void replay(DrawList list, RenderTarget target, int backDepth, int frontDepth) {
+        FloatRect view = getViewRect(target);
+
+        batch.begin(target);
+        for (int i = 0; i < list.getLayerCount(); i++) {
+            int depth = list.getLayerDepth(i);
+            if (depth > backDepth || depth < frontDepth) continue;
+
+            Profiler.begin(list.getLayerScope(i));
+            LayerCache cache = list.getLayerCache(i);
+            boolean cached = cache != null && cache.draw(list, i, target, view);
+            if (!cached) {
+                batch.replay(list, list.getLayerStart(i), list.getLayerEnd(i));
+                stats.addSubmitted(list.getLayerSubmitted(i));
+            }
+            batch.flush();
+            stats.addLayer(depth, list.getLayerDrawn(i), list.getLayerCulled(i), cached);
+            Profiler.end();
+        }
+        batch.end();
+        stats.addBatch(batch);
+    }
+
+    private static FloatRect getViewRect(RenderTarget target) {
         ConstView v = target.getView();
         Vector2f halfSize = Vector2f.div(v.getSize(), 2f);
         Vector2f vo = Vector2f.sub(v.getCenter(), halfSize);
-        FloatRect view = new FloatRect(vo, v.getSize());
+        return new FloatRect(vo, v.getSize());
+    }
+
+    private static void drawObjects(Layer layer, FloatRect view) {
+        for (RenderObject o = layer.first; o != null; o = o.next) {
+            if (o.onscreen(view)) {
+                o.draw(recordBatch);
+                layerDrawn++;
+            } else {
+                layerCulled++;
+            }
+        }
+    }
 
-        for (int i : renderLayers)
-            for (RenderObject o : objects.get(i))
-                if (o.onscreen(view))
-                    o.draw(target);
+    /**
+     * Clear the stats before drawing a frame,
+     * render() does this itself
+     */
+    public static void resetStats() {
+        stats.reset();
+    }
+
+    /**
+     * @return counts from the last replay(), only valid on the
+     * thread drawing until replay() is next called
+     */
+    public static RenderStats getStats() {
+        return stats;
     }
 
     /**
      * Add a Drawable object to be rendered,
      * uses default render layer (1) and render states (alpha)
      * @param d object to be drawn
+     * @return handle for removing the object
      */
-    public static void addDrawable(Drawable d) {
-        addDrawable(d, DEFAULT_RENDER_LAYER, DEFAULT_RENDER_STATES);
+    public static RenderObject addDrawable(Drawable d) {
+        return addDrawable(d, DEFAULT_RENDER_LAYER, DEFAULT_RENDER_STATES);
     }
 
     /**
@@ -133,9 +480,22 @@ public final class Renderer {
      * uses default render states (alpha)
      * @param d object to be drawn
      * @param rL layer to assign object to (higher = further back)
+     * @return handle for removing the object
+     */
+    public static RenderObject addDrawable(Drawable d, int rL) {
+        return addDrawable(d, rL, DEFAULT_RENDER_STATES);
+    }
+
+    /**
+     * Add a Drawable object to be rendered, it's skipped while off
+     * screen if it implements Bounded, otherwise it's always drawn
+     * @param d object to be drawn
+     * @param rL layer to assign object to (higher = further back)
+     * @param rs RenderStates to use when drawing the object
+     * @return handle for removing the object
      */
-    public static void addDrawable(Drawable d, int rL) {
-        addDrawable(d, rL, DEFAULT_RENDER_STATES);
+    public static RenderObject addDrawable(Drawable d, int rL, RenderStates rs) {
+        return addDrawable(d, rL, rs, !(d instanceof Bounded));
     }
 
     /**
@@ -143,25 +503,104 @@ public final class Renderer {
      * @param d object to be drawn
      * @param rL layer to assign object to (higher = further back)
      * @param rs RenderStates to use when drawing the object
+     * @param alwaysOnScreen if true the object is drawn every frame
+     * without checking its bounds, must be true if d isn't Bounded
+     * @return handle for removing the object
+     * NB: layers are only changed from the thread that records
+     * them, so don't add or remove objects from any other thread
+     */
+    public static RenderObject addDrawable(
+        Drawable d, int rL, RenderStates rs, boolean alwaysOnScreen
+    ) {
+        if (!alwaysOnScreen && !(d instanceof Bounded))
+            throw new IllegalArgumentException(
+                d.getClass().getSimpleName() + " isn't Bounded so must be always on screen"
+            );
+        RenderObject o = new RenderObject(d, rs, alwaysOnScreen);
+        getLayer(rL).add(o);
+        return o;
+    }
+
+    /**
+     * Stop drawing an object, does nothing if it's already been removed
+     * Like addDrawable, only call this from the thread recording
+     * @param o handle returned when the object was added
+     */
+    public static void removeDrawable(RenderObject o) {
+        if (o.layer != null)
+            o.layer.remove(o);
+    }
+
+    /**
+     * Turn a whole layer on or off, a disabled layer is skipped
+     * without looking at any of its objects
+     * @param rL layer to set
+     * @param enabled false to stop drawing the layer
      */
-    public static void addDrawable(Drawable d, int rL, RenderStates rs) {
-        RenderObject o = new RenderObject(d, rs);
+    public static void setLayerEnabled(int rL, boolean enabled) {
+        Layer layer = layersByDepth.get(rL);
+        if (layer == null) return;
+
+        if (enabled && !layer.enabled && layer.cache != null)
+            layer.cache.markDirty();
+        layer.enabled = enabled;
+    }
 
-        //add empty list to hashmap when a new index is used
-        //sort list of indices to ensure rendering order is maintained
-        if (!objects.containsKey(rL)) {
-            objects.put(rL, new ArrayList<>());
+    public static boolean isLayerEnabled(int rL) {
+        Layer layer = layersByDepth.get(rL);
+        return layer != null && layer.enabled;
+    }
+
+    /**
+     * Get a layer, creating it in order if it hasn't been used yet
+     */
+    private static Layer getLayer(int rL) {
+        Layer layer = layersByDepth.get(rL);
+        if (layer == null) {
+            layer = new Layer(rL);
+            layersByDepth.put(rL, layer);
 
-            renderLayers.add(rL);
-            Collections.sort(renderLayers);
-            Collections.reverse(renderLayers);
+            int i = 0;
+            while (i < layers.size() && layers.get(i).depth > rL)
+                i++;
+            layers.add(i, layer);
         }
+        return layer;
+    }
 
-        objects.get(rL).add(o);
+    /**
+     * Set whether a layer is cached, a cached layer is drawn to an
+     * offscreen texture and reused until something in it changes,
+     * intended for layers that rarely change such as static UI
+     * Objects in the layer should implement Cacheable, otherwise
+     * the layer is redrawn every frame as if it wasn't cached
+     * @param rL layer to set
+     * @param cached true to cache the layer
+     */
+    public static void setLayerCached(int rL, boolean cached) {
+        Layer layer = getLayer(rL);
+        if (cached && layer.cache == null)
+            layer.cache = new LayerCache();
+        else if (!cached)
+            layer.cache = null;
     }
 
+    /**
+     * Redraw a cached layer next frame, for changes the
+     * objects in it can't report through Cacheable
+     * @param rL layer to redraw
+     */
+    public static void markDirty(int rL) {
+        Layer layer = layersByDepth.get(rL);
+        if (layer != null && layer.cache != null)
+            layer.cache.markDirty();
+    }
+
+    /**
+     * Remove every object and layer
+     */
     public static void clear() {
-        objects.clear();
-        renderLayers.clear();
+        layers.clear();
+        layersByDepth.clear();
     }
 }
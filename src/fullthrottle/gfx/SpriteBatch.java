@@ -0,0 +1,593 @@
+package fullthrottle.gfx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+
+import org.jsfml.graphics.BlendMode;
+import org.jsfml.graphics.Color;
+import org.jsfml.graphics.ConstShader;
+import org.jsfml.graphics.ConstTexture;
+import org.jsfml.graphics.Drawable;
+import org.jsfml.graphics.IntRect;
+import org.jsfml.graphics.PrimitiveType;
+import org.jsfml.graphics.RenderStates;
+import org.jsfml.graphics.RenderTarget;
+import org.jsfml.graphics.Sprite;
+import org.jsfml.graphics.Text;
+import org.jsfml.graphics.Transform;
+import org.jsfml.graphics.Vertex;
+import org.jsfml.graphics.VertexArray;
+import org.jsfml.system.Vector2f;
+
+/**
+ * Collects quads from consecutive sprites and vertex arrays that
+ * share a texture, blend mode and shader and draws them with one
+ * draw call. Transforms are applied to the vertices as they are
+ * added so objects with different transforms still batch together
+ * Anything that can't be batched is drawn straight away, after
+ * flushing what has been collected so draw order is kept
+ * The vertices made for a sprite are kept and reused for as long as
+ * it's drawn unchanged, and the arrays and RenderStates passed to
+ * the target are reused between draw calls
+ * JSFML's Vertex can't be changed once made, so the vertices made for
+ * quads and transformed arrays are kept in a pool, in the order they
+ * were added since begin(), and reused next frame wherever the same
+ * corner is drawn in the same place, so only corners that have moved
+ * need new vertices
+ * A batch can record into a DrawList instead of drawing to a target,
+ * the list is then drawn by replay() on another batch; text is the
+ * only thing it records that isn't batched, other drawables must be
+ * Batchable, sprites or vertex arrays
+ */
+public class SpriteBatch {
+    private static final int INITIAL_CAPACITY = 1024;
+    /**
+     * Number of exact size arrays kept for draw calls, and
+     * number of RenderStates kept for the textures drawn with
+     */
+    private static final int DRAW_CACHE_SIZE = 64;
+    private static final int STATES_CACHE_SIZE = 8;
+
+    /**
+     * Batches used by drawNow(), one for each target
+     */
+    private static final HashMap<RenderTarget, SpriteBatch> shared = new HashMap<>();
+
+    /**
+     * The vertices last made for a sprite, along with the (never
+     * changed) objects they were made from, if they're all the same
+     * objects next time the vertices are still right
+     */
+    private static final class SpriteQuad {
+        private Transform spriteTransform;
+        private Transform statesTransform;
+        private IntRect textureRect;
+        private Color color;
+        private final Vertex[] vertices = new Vertex[4];
+    }
+
+    private RenderTarget target;
+    /**
+     * List being recorded into, null while drawing to a target
+     */
+    private DrawList list;
+    private boolean drawing;
+
+    private Vertex[] vertices;
+    private int count;
+
+    private ConstTexture texture;
+    private BlendMode blendMode;
+    private ConstShader shader;
+
+    private int submitted;
+    private int drawCalls;
+    private int drawnVertices;
+    private int textureBinds;
+    /**
+     * Texture used by the last draw call, to count texture binds
+     */
+    private ConstTexture boundTexture;
+
+    private final WeakHashMap<Sprite, SpriteQuad> spriteQuads = new WeakHashMap<>();
+    /**
+     * Vertices made by pooledVertex(), the next one to reuse
+     * is at poolIndex, which goes back to 0 in begin()
+     */
+    private Vertex[] pool = new Vertex[INITIAL_CAPACITY];
+    private int poolIndex;
+    /**
+     * Matrix of the last transform points were transformed by,
+     * as getMatrix() copies it every time
+     */
+    private Transform matrixTransform;
+    private float[] matrix;
+    /**
+     * Arrays handed to the target, the one for a draw call of
+     * n vertices is kept at (n / 4) % DRAW_CACHE_SIZE
+     */
+    private final Vertex[][] drawArrays = new Vertex[DRAW_CACHE_SIZE][];
+    private final RenderStates[] drawStates = new RenderStates[STATES_CACHE_SIZE];
+    private int nextDrawState;
+    /**
+     * Texts that recorded text is copied into to draw it, the nth
+     * text replayed since begin() uses the nth, and the RenderStates
+     * each was last drawn with
+     */
+    private final ArrayList<Text> texts = new ArrayList<>();
+    private final ArrayList<RenderStates> textStates = new ArrayList<>();
+    private int textIndex;
+
+    public SpriteBatch() {
+        vertices = new Vertex[INITIAL_CAPACITY];
+        count = 0;
+    }
+
+    /**
+     * Draw a Batchable straight to a target, for when it's drawn
+     * outside of the Renderer, through a batch kept for the target
+     * If that batch is already drawing (i.e. this is called from
+     * inside another drawNow()) the object is added to it instead
+     * NB: only call from the thread drawing
+     * @param b object to draw
+     * @param target RenderTarget to draw to
+     * @param states RenderStates to draw with
+     */
+    public static void drawNow(Batchable b, RenderTarget target, RenderStates states) {
+        SpriteBatch batch = shared.get(target);
+        if (batch == null) {
+            batch = new SpriteBatch();
+            shared.put(target, batch);
+        }
+        if (batch.drawing) {
+            b.batch(batch, states);
+            return;
+        }
+
+        batch.begin(target);
+        b.batch(batch, states);
+        batch.end();
+    }
+
+    /**
+     * Start batching for a target, resets the counters
+     * @param target RenderTarget everything is drawn to
+     */
+    public void begin(RenderTarget target) {
+        this.target = target;
+        this.list = null;
+        start();
+    }
+
+    /**
+     * Start recording into a list, which must have been cleared
+     * @param list DrawList everything is recorded into
+     */
+    public void begin(DrawList list) {
+        this.target = null;
+        this.list = list;
+        start();
+    }
+
+    private void start() {
+        drawing = true;
+        count = 0;
+        texture = null;
+        submitted = 0;
+        drawCalls = 0;
+        drawnVertices = 0;
+        textureBinds = 0;
+        boundTexture = null;
+        poolIndex = 0;
+        textIndex = 0;
+    }
+
+    /**
+     * Draw what has been collected so far and start drawing to
+     * another target, keeping the counters
+     * @param target RenderTarget everything is drawn to from now on
+     */
+    public void setTarget(RenderTarget target) {
+        flush();
+        this.target = target;
+        this.list = null;
+    }
+
+    /**
+     * Draw anything still being collected
+     */
+    public void end() {
+        flush();
+        drawing = false;
+    }
+
+    /**
+     * Add a drawable, batched if it's Batchable,
+     * otherwise drawn straight away
+     * @param d object to draw
+     * @param states RenderStates to draw with
+     */
+    public void draw(Drawable d, RenderStates states) {
+        if (d instanceof Batchable) {
+            ((Batchable)d).batch(this, states);
+            return;
+        }
+        if (d instanceof Sprite) {
+            addSprite((Sprite)d, states);
+            return;
+        }
+        if (d instanceof VertexArray) {
+            addVertices((VertexArray)d, states);
+            return;
+        }
+
+        flush();
+        submitted++;
+        if (list != null) {
+            if (!(d instanceof Text)) throw unrecordable(d);
+            Text t = (Text)d;
+            list.addText(t, isIdentity(states.transform)
+                ? t.getTransform()
+                : Transform.combine(states.transform, t.getTransform()),
+                states);
+            return;
+        }
+        countDrawCall(states.texture, 0);
+        d.draw(target, states);
+    }
+
+    /**
+     * Add a sprite, through its own batch() if it's Batchable
+     * (e.g. an Animation drawing one of its frames)
+     * @param s sprite to draw
+     * @param states RenderStates to draw with
+     */
+    public void draw(Sprite s, RenderStates states) {
+        if (s instanceof Batchable)
+            ((Batchable)s).batch(this, states);
+        else
+            addSprite(s, states);
+    }
+
+    /**
+     * Add the quad of a plain sprite, using its texture
+     * rect, transform and colour
+     * @param s sprite to add
+     * @param states RenderStates to draw with, the texture is ignored
+     */
+    public void addSprite(Sprite s, RenderStates states) {
+        submitted++;
+        use(s.getTexture(), states);
+        ensureCapacity(4);
+
+        //a sprite's transform, rect and colour are replaced rather than
+        //changed, so the same objects mean the same vertices
+        Transform spriteTransform = s.getTransform();
+        IntRect r = s.getTextureRect();
+        Color c = s.getColor();
+        SpriteQuad q = spriteQuads.get(s);
+        if (q == null) {
+            q = new SpriteQuad();
+            spriteQuads.put(s, q);
+        }
+        if (q.spriteTransform != spriteTransform || q.statesTransform != states.transform
+            || q.textureRect != r || q.color != c) {
+            Transform t = isIdentity(states.transform)
+                ? spriteTransform
+                : Transform.combine(states.transform, spriteTransform);
+            float w = Math.abs(r.width);
+            float h = Math.abs(r.height);
+            float u0 = r.left, v0 = r.top;
+            float u1 = r.left + r.width, v1 = r.top + r.height;
+
+            q.vertices[0] = new Vertex(t.transformPoint(0, 0), c, new Vector2f(u0, v0));
+            q.vertices[1] = new Vertex(t.transformPoint(w, 0), c, new Vector2f(u1, v0));
+            q.vertices[2] = new Vertex(t.transformPoint(w, h), c, new Vector2f(u1, v1));
+            q.vertices[3] = new Vertex(t.transformPoint(0, h), c, new Vector2f(u0, v1));
+            q.spriteTransform = spriteTransform;
+            q.statesTransform = states.transform;
+            q.textureRect = r;
+            q.color = c;
+        }
+
+        System.arraycopy(q.vertices, 0, vertices, count, 4);
+        count += 4;
+    }
+
+    /**
+     * Add one quad stored as x, y, u, v for each corner
+     * in order (top left, top right, bottom right, bottom left)
+     * @param texture texture to draw from
+     * @param quad array holding the quad
+     * @param offset index of the first float of the quad
+     * @param color colour of every corner
+     * @param states RenderStates to draw with, the texture is ignored
+     */
+    public void addQuad(
+        ConstTexture texture, float[] quad, int offset,
+        Color color, RenderStates states
+    ) {
+        submitted++;
+        use(texture, states);
+        ensureCapacity(4);
+
+        float[] m = getMatrix(states.transform);
+        for (int i = offset; i < offset + 16; i += 4) {
+            float x = quad[i], y = quad[i + 1];
+            vertices[count++] = pooledVertex(
+                m[0] * x + m[4] * y + m[12], m[1] * x + m[5] * y + m[13],
+                color, quad[i + 2], quad[i + 3]
+            );
+        }
+    }
+
+    /**
+     * Add the vertices of an array, only QUADS arrays are batched,
+     * anything else is drawn straight away
+     * @param va vertices to add
+     * @param states RenderStates to draw with, including the texture
+     */
+    public void addVertices(VertexArray va, RenderStates states) {
+        if (va.isEmpty()) return;
+        if (va.getPrimitiveType() != PrimitiveType.QUADS) {
+            if (list != null) throw unrecordable(va);
+            flush();
+            submitted++;
+            countDrawCall(states.texture, va.size());
+            va.draw(target, states);
+            return;
+        }
+
+        submitted++;
+        use(states.texture, states);
+        ensureCapacity(va.size());
+
+        boolean identity = isIdentity(states.transform);
+        float[] m = getMatrix(states.transform);
+        for (int i = 0; i < va.size(); i++) {
+            Vertex v = va.get(i);
+            if (identity) {
+                vertices[count++] = v;
+            } else {
+                float x = v.position.x, y = v.position.y;
+                vertices[count++] = pooledVertex(
+                    m[0] * x + m[4] * y + m[12], m[1] * x + m[5] * y + m[13],
+                    v.color, v.texCoords.x, v.texCoords.y
+                );
+            }
+        }
+    }
+
+    /**
+     * Get the next vertex from the pool, made again
+     * only if it doesn't already match
+     */
+    private Vertex pooledVertex(float x, float y, Color color, float u, float v) {
+        if (poolIndex == pool.length)
+            pool = Arrays.copyOf(pool, pool.length * 2);
+
+        Vertex p = pool[poolIndex];
+        if (p == null || p.position.x != x || p.position.y != y
+            || p.texCoords.x != u || p.texCoords.y != v || !p.color.equals(color)) {
+            //a moved corner can keep its texture coordinates
+            Vector2f texCoords = p != null && p.texCoords.x == u && p.texCoords.y == v
+                ? p.texCoords
+                : new Vector2f(u, v);
+            p = new Vertex(new Vector2f(x, y), color, texCoords);
+            pool[poolIndex] = p;
+        }
+        poolIndex++;
+        return p;
+    }
+
+    /**
+     * @return the 4x4 matrix of a transform, only
+     * copied when it's a different transform to last time
+     */
+    private float[] getMatrix(Transform t) {
+        if (t != matrixTransform) {
+            matrix = t.getMatrix();
+            matrixTransform = t;
+        }
+        return matrix;
+    }
+
+    /**
+     * Draw vertices straight away, after flushing, without
+     * transforming them, for meshes kept between frames that
+     * are moved with the transform they're drawn with
+     * @param v QUADS vertices to draw
+     * @param states RenderStates to draw with, including the texture
+     */
+    public void drawVertices(Vertex[] v, RenderStates states) {
+        drawVertices(v, 0, v.length, states);
+    }
+
+    /**
+     * Draw part of an array straight away, after flushing, without
+     * transforming it
+     * @param v QUADS vertices to draw from
+     * @param offset index of the first vertex to draw
+     * @param length number of vertices to draw
+     * @param states RenderStates to draw with, including the texture
+     */
+    public void drawVertices(Vertex[] v, int offset, int length, RenderStates states) {
+        if (length == 0) return;
+        flush();
+        submitted++;
+        submit(v, offset, length, states);
+    }
+
+    /**
+     * Draw part of a list recorded by another batch, as it was
+     * recorded, to this batch's target
+     * @param list recorded list
+     * @param first index of the first draw call to draw
+     * @param end index after the last draw call to draw
+     */
+    public void replay(DrawList list, int first, int end) {
+        flush();
+        Vertex[] v = list.getVertices();
+        for (int i = first; i < end; i++) {
+            if (list.isText(i))
+                drawText(list, list.getOffset(i), list.getStates(i));
+            else
+                submit(v, list.getOffset(i), list.getLength(i), list.getStates(i));
+        }
+    }
+
+    /**
+     * Draw a recorded text through the next of the texts kept for
+     * replaying, a recorded text can't be drawn straight away as
+     * only a Text can be drawn, and making one each time is slow
+     */
+    private void drawText(DrawList list, int text, RenderStates states) {
+        if (textIndex == texts.size()) {
+            texts.add(new Text());
+            textStates.add(null);
+        }
+        Text t = texts.get(textIndex);
+        list.copyText(text, t);
+
+        Transform transform = list.getTextTransform(text);
+        RenderStates s = textStates.get(textIndex);
+        if (s == null || s.transform != transform
+            || s.blendMode != states.blendMode || s.shader != states.shader) {
+            s = new RenderStates(states.blendMode, transform, null, states.shader);
+            textStates.set(textIndex, s);
+        }
+        textIndex++;
+
+        countDrawCall(null, 0);
+        t.draw(target, s);
+    }
+
+    /**
+     * Draw vertices to the target or record them into the list;
+     * the target only draws whole arrays, so the range is copied
+     * into one of exactly the right size kept from an earlier draw
+     */
+    private void submit(Vertex[] v, int offset, int length, RenderStates states) {
+        if (list != null) {
+            list.addVertices(v, offset, length, states);
+            return;
+        }
+        Vertex[] drawn = getDrawArray(length);
+        System.arraycopy(v, offset, drawn, 0, length);
+        target.draw(drawn, PrimitiveType.QUADS, states);
+        countDrawCall(states.texture, length);
+    }
+
+    /**
+     * Draw everything collected so far as one draw call
+     */
+    public void flush() {
+        if (count == 0) return;
+
+        submit(vertices, 0, count, getStates());
+        Arrays.fill(vertices, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * @return number of sprites, arrays and drawables
+     * submitted since begin(), i.e. draw calls without batching
+     */
+    public int getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * @return number of draw calls made since begin()
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * @return number of vertices drawn since begin(), not
+     * counting drawables drawn directly (e.g. text)
+     */
+    public int getVertices() {
+        return drawnVertices;
+    }
+
+    /**
+     * @return number of draw calls since begin() that used
+     * a different texture to the draw call before
+     */
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+    /**
+     * @return an array of exactly length vertices, reusing
+     * the last one made for a draw call of that size
+     */
+    private Vertex[] getDrawArray(int length) {
+        int slot = (length / 4) % DRAW_CACHE_SIZE;
+        Vertex[] drawn = drawArrays[slot];
+        if (drawn == null || drawn.length != length) {
+            drawn = new Vertex[length];
+            drawArrays[slot] = drawn;
+        }
+        return drawn;
+    }
+
+    /**
+     * @return RenderStates for the current texture, blend mode
+     * and shader, reusing one made for an earlier draw call
+     */
+    private RenderStates getStates() {
+        for (RenderStates s : drawStates) {
+            if (s != null && s.texture == texture
+                && s.blendMode == blendMode && s.shader == shader)
+                return s;
+        }
+
+        RenderStates s = new RenderStates(blendMode, Transform.IDENTITY, texture, shader);
+        drawStates[nextDrawState] = s;
+        nextDrawState = (nextDrawState + 1) % STATES_CACHE_SIZE;
+        return s;
+    }
+
+    private static IllegalStateException unrecordable(Drawable d) {
+        return new IllegalStateException(
+            d.getClass().getSimpleName() + " can't be recorded, it must be Batchable"
+        );
+    }
+
+    private static boolean isIdentity(Transform t) {
+        return t == Transform.IDENTITY || t.equals(Transform.IDENTITY);
+    }
+
+    private void countDrawCall(ConstTexture t, int vertexCount) {
+        drawCalls++;
+        drawnVertices += vertexCount;
+        if (t != boundTexture || drawCalls == 1)
+            textureBinds++;
+        boundTexture = t;
+    }
+
+    /**
+     * Flushes first if the new quads can't join the current batch
+     */
+    private void use(ConstTexture t, RenderStates states) {
+        if (count > 0 && (t != texture
+            || states.blendMode != blendMode || states.shader != shader))
+            flush();
+
+        texture = t;
+        blendMode = states.blendMode;
+        shader = states.shader;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (count + extra > vertices.length)
+            vertices = Arrays.copyOf(
+                vertices, Math.max(vertices.length * 2, count + extra)
+            );
+    }
+}
@@ -9,7 +9,7 @@ import org.jsfml.system.Vector2i;
 
 public class Spritesheet {
     
-    private Texture sheet;
+    private TextureRegion sheet;
     private Vector2i spriteDimensions;
     private Vector2i offset;
     private Vector2i padding;
@@ -25,6 +25,16 @@ public class Spritesheet {
      * @param spriteDimensions the dimensions of each sprite
      */
     public Spritesheet(Texture sheet, Vector2i spriteDimensions) {
+        this(new TextureRegion(sheet), spriteDimensions);
+    }
+
+    /**
+     * Initialises a spritesheet from a region of a texture (e.g. an
+     * atlas) with the given dimensions and no padding or offset
+     * @param sheet the region of the source texture
+     * @param spriteDimensions the dimensions of each sprite
+     */
+    public Spritesheet(TextureRegion sheet, Vector2i spriteDimensions) {
         this(sheet, spriteDimensions, Vector2i.ZERO, Vector2i.ZERO);
     }
 
@@ -41,6 +51,23 @@ public class Spritesheet {
     public Spritesheet(
         Texture sheet, Vector2i spriteDimensions,
         Vector2i offset, Vector2i padding
+    ) {
+        this(new TextureRegion(sheet), spriteDimensions, offset, padding);
+    }
+
+    /**
+     * Initialises a spritesheet from a region of a texture (e.g. an
+     * atlas) with the given dimensions, offset and padding
+     * @param sheet the region of the source texture
+     * @param spriteDimensions the dimensions of each sprite
+     * @param offset the x,y coordinates of the top left sprite,
+     * relative to the region
+     * @param padding padding between sprites added on the
+     * right and bottom
+     */
+    public Spritesheet(
+        TextureRegion sheet, Vector2i spriteDimensions,
+        Vector2i offset, Vector2i padding
     ) {
         this.sheet = sheet;
         this.offset = offset;
@@ -115,7 +142,7 @@ public class Spritesheet {
         IntRect spriteRect = new IntRect(
             spriteOffset, spriteDimensions
         );
-        Sprite s = new Sprite(sheet, spriteRect);
+        Sprite s = sheet.createSprite(spriteRect);
 
         storedSprites.put(index, s);
         return s;
@@ -0,0 +1,121 @@
+package fullthrottle.gfx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+
+import org.jsfml.graphics.IntRect;
+import org.jsfml.graphics.Texture;
+
+import fullthrottle.debug.Trace;
+
+/**
+ * Resolves image paths to regions of the texture atlas pages built
+ * by AtlasPacker, so images sharing a page can be batched together
+ * Images that aren't in the atlas index (or every image, if the
+ * atlas hasn't been built) are loaded as loose textures instead
+ * Each image and page is only loaded once, later requests for the
+ * same path share the region
+ * This is a static class and shouldn't be instantiated
+ */
+public final class TextureAtlas {
+    private static class Entry {
+        final int page;
+        final IntRect rect;
+
+        Entry(int page, IntRect rect) {
+            this.page = page;
+            this.rect = rect;
+        }
+    }
+
+    private static HashMap<String, Entry> index;
+    private static final HashMap<Integer, Texture> pages = new HashMap<>();
+    private static final HashMap<String, TextureRegion> regions = new HashMap<>();
+
+    private TextureAtlas() {
+
+    }
+
+    /**
+     * Get the region for an image, from the atlas if
+     * it was packed, otherwise from the loose file
+     * @param path String representation of path to source image
+     * @return region of the texture holding the image
+     */
+    public static synchronized TextureRegion getRegion(String path) {
+        String key = AtlasPacker.normalise(Paths.get(path));
+        TextureRegion region = regions.get(key);
+        if (region != null) return region;
+
+        Entry e = getIndex().get(key);
+        if (e != null)
+            region = new TextureRegion(getPage(e.page), e.rect);
+        else
+            region = new TextureRegion(new FTTexture(path));
+
+        regions.put(key, region);
+        return region;
+    }
+
+    private static Texture getPage(int page) {
+        Texture t = pages.get(page);
+        if (t == null) {
+            t = new FTTexture(AtlasPacker.getPagePath(page));
+            pages.put(page, t);
+        }
+        return t;
+    }
+
+    private static HashMap<String, Entry> getIndex() {
+        if (index != null) return index;
+
+        long start = Trace.now();
+        index = new HashMap<>();
+        Path indexPath = Paths.get(AtlasPacker.DIRECTORY, AtlasPacker.INDEX_FILE);
+        try (BufferedReader reader = Files.newBufferedReader(indexPath)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                readEntry(line);
+            }
+        } catch (NoSuchFileException e) {
+            System.out.println(
+                "No texture atlas at " + indexPath +
+                ", loading loose textures"
+            );
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Couldn't read texture atlas index: " + e);
+            index.clear();
+        }
+        Trace.complete("Atlas Index Load", "asset", start, index.size() + " images");
+        return index;
+    }
+
+    /**
+     * Read one index line: path page left top width height
+     * The path comes first and can contain spaces
+     */
+    private static void readEntry(String line) {
+        int split = line.length();
+        for (int i = 0; i < 5; i++) {
+            split = line.lastIndexOf(' ', split - 1);
+            if (split <= 0)
+                throw new IllegalArgumentException("Bad atlas entry: " + line);
+        }
+
+        String path = line.substring(0, split);
+        String[] numbers = line.substring(split + 1).split(" ");
+        int page = Integer.parseInt(numbers[0]);
+        IntRect rect = new IntRect(
+            Integer.parseInt(numbers[1]), Integer.parseInt(numbers[2]),
+            Integer.parseInt(numbers[3]), Integer.parseInt(numbers[4])
+        );
+        index.put(AtlasPacker.normalise(Paths.get(path)), new Entry(page, rect));
+    }
+}
@@ -0,0 +1,28 @@
+package fullthrottle.gfx;
+
+import fullthrottle.util.Headless;
+
+/**
+ * Loads textures for the game, when running headless nothing is
+ * loaded so no graphics context (or display) is ever needed
+ * NB: kept separate from FTTexture as using any Texture subclass
+ * loads the native graphics libraries
+ * This is a static class and shouldn't be instantiated
+ */
+public final class TextureLoader {
+
+    private TextureLoader() {
+
+    }
+
+    /**
+     * Loads the region of the texture atlas (or the loose texture)
+     * holding an image, unless running headless
+     * @param path String representation of path to source image
+     * @return the region, or null if headless
+     */
+    public static TextureRegion loadRegion(String path) {
+        if (Headless.isEnabled()) return null;
+        return TextureAtlas.getRegion(path);
+    }
+}
@@ -0,0 +1,114 @@
+package fullthrottle.gfx;
+
+import org.jsfml.graphics.IntRect;
+import org.jsfml.graphics.Sprite;
+import org.jsfml.graphics.Texture;
+import org.jsfml.graphics.Vertex;
+import org.jsfml.graphics.VertexArray;
+import org.jsfml.system.Vector2f;
+import org.jsfml.system.Vector2i;
+
+/**
+ * An image within a texture, either a whole loose texture or
+ * one image packed into a texture atlas page
+ * Anything that works out texture rects or texture coordinates
+ * should treat them as relative to the region, not the texture
+ */
+public class TextureRegion {
+    private final Texture texture;
+    private final IntRect rect;
+
+    /**
+     * Region covering the whole of a texture
+     * @param texture the source texture
+     */
+    public TextureRegion(Texture texture) {
+        this(texture, new IntRect(Vector2i.ZERO, texture.getSize()));
+    }
+
+    /**
+     * Region covering part of a texture
+     * @param texture the source texture
+     * @param rect area of the texture the region covers
+     */
+    public TextureRegion(Texture texture, IntRect rect) {
+        this.texture = texture;
+        this.rect = rect;
+    }
+
+    public Texture getTexture() {
+        return texture;
+    }
+
+    /**
+     * @return area of the texture the region covers
+     */
+    public IntRect getRect() {
+        return rect;
+    }
+
+    public Vector2i getSize() {
+        return new Vector2i(rect.width, rect.height);
+    }
+
+    /**
+     * @return position of the region within the texture,
+     * to be added to texture coordinates
+     */
+    public Vector2f getOffset() {
+        return new Vector2f(rect.left, rect.top);
+    }
+
+    /**
+     * @param region a region, or null when nothing was
+     * loaded (e.g. running headless)
+     * @return offset of the region, zero if it's null
+     */
+    public static Vector2f offsetOf(TextureRegion region) {
+        return region == null ? Vector2f.ZERO : region.getOffset();
+    }
+
+    /**
+     * Convert an area of the region to an area of the texture
+     * @param area area relative to the top left of the region
+     * @return the same area relative to the texture
+     */
+    public IntRect toTextureRect(IntRect area) {
+        return new IntRect(
+            rect.left + area.left, rect.top + area.top,
+            area.width, area.height
+        );
+    }
+
+    /**
+     * @return a sprite showing the whole region
+     */
+    public Sprite createSprite() {
+        return new Sprite(texture, rect);
+    }
+
+    /**
+     * @param area area relative to the top left of the region
+     * @return a sprite showing part of the region
+     */
+    public Sprite createSprite(IntRect area) {
+        return new Sprite(texture, toTextureRect(area));
+    }
+
+    /**
+     * Move the texture coordinates of every vertex in an array
+     * from region space to texture space
+     * @param va vertices to update, changed in place
+     */
+    public void offsetTexCoords(VertexArray va) {
+        if (rect.left == 0 && rect.top == 0) return;
+
+        Vector2f offset = getOffset();
+        for (int i = 0; i < va.size(); i++) {
+            Vertex v = va.get(i);
+            va.set(i, new Vertex(
+                v.position, v.color, Vector2f.add(v.texCoords, offset)
+            ));
+        }
+    }
+}
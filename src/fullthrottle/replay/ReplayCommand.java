@@ -0,0 +1,12 @@
+package fullthrottle.replay;
+
+/**
+ * Game actions triggered by the UI, recorded alongside the input
+ * events so a replay can be played back without any buttons
+ * (e.g. headless)
+ */
+public enum ReplayCommand {
+    START_GAME,
+    PLAY_AGAIN,
+    MAIN_MENU
+}
@@ -0,0 +1,169 @@
+package fullthrottle.replay;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import org.jsfml.window.event.Event;
+import org.jsfml.window.event.KeyEvent;
+import org.jsfml.window.event.MouseButtonEvent;
+import org.jsfml.window.event.MouseEvent;
+import org.jsfml.window.event.MouseWheelEvent;
+
+/**
+ * Reads back a replay written by ReplayRecorder one frame at a time
+ */
+public class ReplayPlayer {
+    /**
+     * Receives the events and commands of each frame in the
+     * order they were recorded, with the simulation step of
+     * the frame they were handled before
+     */
+    public interface Handler {
+        public void event(Event e, int step);
+
+        public void command(ReplayCommand c, int step);
+    }
+
+    /**
+     * Oldest version that can still be read, version 1 replays
+     * have no steps so everything is handled before the first
+     */
+    private static final short OLDEST_VERSION = 1;
+
+    private static final Event.Type[] EVENT_TYPES = Event.Type.values();
+    private static final ReplayCommand[] COMMANDS = ReplayCommand.values();
+
+    private DataInputStream in;
+    private short version;
+    private long seed;
+    private long frames;
+    private boolean finished;
+
+    /**
+     * Open a replay file
+     * @param path file to read from
+     * @throws IOException if the file can't be read or isn't a replay
+     */
+    public ReplayPlayer(String path) throws IOException {
+        in = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(path))
+        );
+        if (in.readInt() != ReplayRecorder.MAGIC)
+            throw new InvalidReplayException(path + " is not a replay");
+        version = in.readShort();
+        if (version < OLDEST_VERSION || version > ReplayRecorder.VERSION)
+            throw new InvalidReplayException(
+                "Unsupported replay version " + version
+            );
+        seed = in.readLong();
+
+        //position the stream just after the first frame tag
+        finished = in.readByte() != ReplayRecorder.FRAME;
+        frames = 0;
+    }
+
+    /**
+     * @return seed the road was given when recording
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return number of frames played back so far
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Start the next frame, playEvents() must be called
+     * before nextFrame() is called again
+     * @return length of the frame in seconds, or -1 once
+     * the replay has finished
+     * @throws IOException if the file can't be read
+     */
+    public float nextFrame() throws IOException {
+        if (finished) return -1;
+
+        frames++;
+        return in.readFloat();
+    }
+
+    /**
+     * Pass the current frame's events and commands to handler
+     * @param handler receives the frame's events and commands
+     * @throws IOException if the file can't be read
+     */
+    public void playEvents(Handler handler) throws IOException {
+        if (finished) return;
+
+        while (true) {
+            byte tag;
+            try {
+                tag = in.readByte();
+            } catch (EOFException e) {
+                //recording was cut off, e.g. the game crashed
+                tag = ReplayRecorder.END;
+            }
+
+            if (tag == ReplayRecorder.FRAME) {
+                return;
+            } else if (tag == ReplayRecorder.KEY) {
+                int step = readStep();
+                int type = in.readByte();
+                int key = in.readShort();
+                int mods = in.readByte();
+                //JSFML key codes start at -1 (Key.UNKNOWN)
+                handler.event(new KeyEvent(
+                    type, key - 1, (mods & 1) != 0, (mods & 2) != 0,
+                    (mods & 4) != 0, (mods & 8) != 0
+                ), step);
+            } else if (tag == ReplayRecorder.MOUSE) {
+                int step = readStep();
+                int type = in.readByte();
+                int x = in.readShort();
+                int y = in.readShort();
+                int extra = in.readShort();
+                handler.event(mouseEvent(EVENT_TYPES[type], type, x, y, extra), step);
+            } else if (tag == ReplayRecorder.COMMAND) {
+                int step = readStep();
+                handler.command(COMMANDS[in.readByte()], step);
+            } else {
+                finished = true;
+                in.close();
+                return;
+            }
+        }
+    }
+
+    private int readStep() throws IOException {
+        return (version >= 2) ? in.readByte() : 0;
+    }
+
+    private static Event mouseEvent(Event.Type t, int type, int x, int y, int extra) {
+        if (t == Event.Type.MOUSE_BUTTON_PRESSED || t == Event.Type.MOUSE_BUTTON_RELEASED)
+            return new MouseButtonEvent(type, x, y, extra);
+        if (t == Event.Type.MOUSE_WHEEL_MOVED)
+            return new MouseWheelEvent(type, x, y, extra);
+        return new MouseEvent(type, x, y);
+    }
+
+    /**
+     * Exception thrown when a file isn't a replay this version can read
+     */
+    public static class InvalidReplayException extends IOException {
+        private static final long serialVersionUID = 7329152864113307562L;
+
+        public InvalidReplayException(String message) {
+            super(message);
+        }
+    }
+}
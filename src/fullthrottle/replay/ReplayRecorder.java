@@ -0,0 +1,126 @@
+package fullthrottle.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.jsfml.window.event.Event;
+import org.jsfml.window.event.KeyEvent;
+import org.jsfml.window.event.MouseButtonEvent;
+import org.jsfml.window.event.MouseEvent;
+import org.jsfml.window.event.MouseWheelEvent;
+
+/**
+ * Writes a replay: the road seed, then the length of every frame
+ * followed by the input events and commands handled during it,
+ * each with the simulation step of the frame it was handled before
+ * Should only be used from the thread running the simulation
+ */
+public class ReplayRecorder {
+    static final int MAGIC = 0x46545250; //"FTRP"
+    static final short VERSION = 2;
+
+    static final byte FRAME = 0;
+    static final byte KEY = 1;
+    static final byte MOUSE = 2;
+    static final byte COMMAND = 3;
+    static final byte END = 4;
+
+    private DataOutputStream out;
+    private long frames;
+
+    /**
+     * Start recording to a file
+     * @param path file to write to, overwritten if it exists
+     * @param seed seed the road was given
+     * @throws IOException if the file can't be written
+     */
+    public ReplayRecorder(String path, long seed) throws IOException {
+        out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(path))
+        );
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(seed);
+        frames = 0;
+    }
+
+    /**
+     * Start a new frame, called once per frame after TimeManager.update()
+     * @param frameTime length of the frame in seconds
+     * @throws IOException if the file can't be written
+     */
+    public void frame(float frameTime) throws IOException {
+        out.writeByte(FRAME);
+        out.writeFloat(frameTime);
+        frames++;
+    }
+
+    /**
+     * Record a key or mouse event, other events are ignored
+     * @param e event polled from the window
+     * @param step step of the frame the event was handled before
+     * @throws IOException if the file can't be written
+     */
+    public void event(Event e, int step) throws IOException {
+        KeyEvent k = e.asKeyEvent();
+        if (k != null) {
+            out.writeByte(KEY);
+            out.writeByte(step);
+            out.writeByte(k.type.ordinal());
+            out.writeShort(k.key.ordinal());
+            out.writeByte(
+                (k.alt ? 1 : 0) | (k.shift ? 2 : 0) |
+                (k.control ? 4 : 0) | (k.system ? 8 : 0)
+            );
+            return;
+        }
+
+        MouseEvent m = e.asMouseEvent();
+        if (m != null) {
+            int extra = 0;
+            MouseButtonEvent b = e.asMouseButtonEvent();
+            MouseWheelEvent w = e.asMouseWheelEvent();
+            if (b != null)
+                extra = b.button.ordinal();
+            else if (w != null)
+                extra = w.delta;
+
+            out.writeByte(MOUSE);
+            out.writeByte(step);
+            out.writeByte(m.type.ordinal());
+            out.writeShort(m.position.x);
+            out.writeShort(m.position.y);
+            out.writeShort(extra);
+        }
+    }
+
+    /**
+     * Record a game action triggered by the UI
+     * @param c the action
+     * @param step step of the frame the action happened before
+     * @throws IOException if the file can't be written
+     */
+    public void command(ReplayCommand c, int step) throws IOException {
+        out.writeByte(COMMAND);
+        out.writeByte(step);
+        out.writeByte(c.ordinal());
+    }
+
+    /**
+     * @return number of frames recorded
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Finish the replay and close the file
+     * @throws IOException if the file can't be written
+     */
+    public void close() throws IOException {
+        out.writeByte(END);
+        out.close();
+    }
+}
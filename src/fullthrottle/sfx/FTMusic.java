@@ -1,27 +1,31 @@
-package fullthrottle.sfx;
-
-import org.jsfml.audio.Music;
-import java.io.IOException;
-import java.nio.file.Paths;
-
-public class FTMusic extends Music {
-
-    
-    
-    public void play_music(String path)
-    {
-        
-        try {
-            openFromFile(Paths.get(path));
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        setLoop(true);
-      play();
-    }
-
-    
-}
-
+package fullthrottle.sfx;
+
+import org.jsfml.audio.Music;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import fullthrottle.util.Headless;
+
+public class FTMusic extends Music {
+
+    
+    
+    public void play_music(String path)
+    {
+        //no audio device when headless
+        if (Headless.isEnabled()) return;
+        
+        try {
+            openFromFile(Paths.get(path));
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        setLoop(true);
+      play();
+    }
+
+    
+}
+
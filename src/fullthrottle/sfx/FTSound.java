@@ -1,14 +1,18 @@
-package fullthrottle.sfx;
-
-import org.jsfml.audio.Sound;
-import java.nio.file.Paths;
-
-public class FTSound extends Sound {
-
-    public void play_sound(String path) {
-        setBuffer(new FTBuffer((Paths.get(path))));
-        play();
-    }
-}
-
-    
+package fullthrottle.sfx;
+
+import org.jsfml.audio.Sound;
+import java.nio.file.Paths;
+
+import fullthrottle.util.Headless;
+
+public class FTSound extends Sound {
+
+    public void play_sound(String path) {
+        //no audio device when headless
+        if (Headless.isEnabled()) return;
+        setBuffer(new FTBuffer((Paths.get(path))));
+        play();
+    }
+}
+
+    
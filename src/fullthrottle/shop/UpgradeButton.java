@@ -2,11 +2,10 @@ package fullthrottle.shop;
 
 import org.jsfml.graphics.FloatRect;
 import org.jsfml.graphics.Sprite;
-import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.TextureAtlas;
 import fullthrottle.ui.Button;
 import fullthrottle.ui.ButtonManager;
 import fullthrottle.ui.UI.SpriteFillMode;
@@ -46,11 +45,9 @@ public final class UpgradeButton extends Button {
     ) {
         super(Vector2f.ZERO, new Vector2i(size));
 
-        Texture tex = new FTTexture(
+        Sprite bSprite = TextureAtlas.getRegion(
             "./res/shop/UpgradeButton" + type.spriteIndex + ".png"
-        );
-
-        Sprite bSprite = new Sprite(tex);
+        ).createSprite();
         FloatRect sB = bSprite.getGlobalBounds();
         Vector2f sSize = new Vector2f(sB.left, sB.top);
         Vector2f scale = Vector2f.componentwiseDiv(size, sSize);
@@ -1,6 +1,9 @@
 package fullthrottle.ui;
 
 import fullthrottle.FullThrottle;
+import fullthrottle.gfx.Batchable;
+import fullthrottle.gfx.Cacheable;
+import fullthrottle.gfx.SpriteBatch;
 
 import java.lang.Class;
 import java.lang.reflect.InvocationTargetException;
@@ -28,7 +31,7 @@ import org.jsfml.window.Mouse;
  * Needs to be added as an observer to the ButtonManager
  */
 @SuppressWarnings("deprecation")
-public class Button implements Observer, Drawable {
+public class Button implements Observer, Drawable, Batchable, Cacheable {
 
     private Vector2f position;
     private Vector2i size;
@@ -40,6 +43,13 @@ public class Button implements Observer, Drawable {
     private Sprite disabledSprite;
 
     private Sprite activeSprite;
+
+    /**
+     * What was drawn last time, drawnSprite is null if nothing was
+     */
+    private Sprite drawnSprite;
+    private Color drawnColor;
+    private Vector2f drawnPosition;
     private UI.SpriteFillMode fillMode;
 
     private Color defaultColor;
@@ -373,19 +383,63 @@ public class Button implements Observer, Drawable {
 
     @Override
     public void draw(RenderTarget target, RenderStates states) {
+        drawnSprite = null;
+        if (!visible) return;
+
+        updateActiveSprite();
+        this.activeSprite.draw(target, states);
+        markDrawn();
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates states) {
+        drawnSprite = null;
         if (!visible) return;
 
+        updateActiveSprite();
+        batch.draw(this.activeSprite, states);
+        markDrawn();
+    }
+
+    /**
+     * Whether the button would draw a different sprite, colour or
+     * position to last time, NB: doesn't know about animation within
+     * the sprite itself (e.g. an Animator)
+     */
+    @Override
+    public boolean isDirty() {
+        if (!visible) return drawnSprite != null;
+
+        return (enabled ? enabledSprite : disabledSprite) != drawnSprite
+            || !getStateColor().equals(drawnColor)
+            || !position.equals(drawnPosition);
+    }
+
+    private void markDrawn() {
+        drawnSprite = activeSprite;
+        drawnColor = activeSprite.getColor();
+        drawnPosition = position;
+    }
+
+    /**
+     * Picks the sprite to draw and sets its position and colour
+     */
+    private void updateActiveSprite() {
         this.activeSprite = enabled ? enabledSprite : disabledSprite;
         this.activeSprite.setPosition(this.position);
-        
+        this.activeSprite.setColor(getStateColor());
+    }
+
+    /**
+     * @return colour for whether the button is held, hovered or neither
+     */
+    private Color getStateColor() {
         if ((heldLeft || heldRight) && enabled) {
-            this.activeSprite.setColor(heldColor);
+            return heldColor;
         } else if (hovered && enabled) {
-            this.activeSprite.setColor(hoverColor);
+            return hoverColor;
         } else {
-            this.activeSprite.setColor(defaultColor);
+            return defaultColor;
         }
-
-        this.activeSprite.draw(target, states);
     }
 }
\ No newline at end of file
@@ -4,16 +4,18 @@ import org.jsfml.graphics.Drawable;
 import org.jsfml.graphics.PrimitiveType;
 import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.RenderTarget;
-import org.jsfml.graphics.Texture;
 import org.jsfml.graphics.Vertex;
 import org.jsfml.graphics.VertexArray;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 
+import fullthrottle.gfx.Batchable;
+import fullthrottle.gfx.SpriteBatch;
+import fullthrottle.gfx.TextureRegion;
 import fullthrottle.util.TimeManager;
 import fullthrottle.util.Updatable;
 
-public class ProgressBar implements Drawable, Updatable {
+public class ProgressBar implements Drawable, Batchable, Updatable {
 
     public static final float DEFAULT_FILL_SPEED = 10;
 
@@ -23,7 +25,7 @@ public class ProgressBar implements Drawable, Updatable {
 
     private float stages[];
 
-    private Texture spriteSheet;
+    private TextureRegion spriteSheet;
     private Vector2f spriteSize;
 
     private float fillSpeed;
@@ -41,14 +43,14 @@ public class ProgressBar implements Drawable, Updatable {
 
     public ProgressBar(
         Vector2f position, Vector2f size, float max,
-        Texture sheet, Vector2i spriteSize
+        TextureRegion sheet, Vector2i spriteSize
     ) {
         this(position, size, max, sheet, spriteSize, max, new float[] {max});
     }
 
     public ProgressBar(
         Vector2f position, Vector2f size, float max,
-        Texture sheet, Vector2i spriteSize,
+        TextureRegion sheet, Vector2i spriteSize,
         float startValue, float[] stages    
     ) {
         this.lerpUpdate = true;
@@ -249,7 +251,7 @@ public class ProgressBar implements Drawable, Updatable {
             return;
         }
             
-        displayValue += (currentValue - displayValue) * fillSpeed * TimeManager.deltaTime();
+        displayValue += (currentValue - displayValue) * fillSpeed * TimeManager.ui().deltaTime();
         if (Math.abs(currentValue - displayValue) < 0.1f) displayValue = currentValue;
     }
 
@@ -257,7 +259,21 @@ public class ProgressBar implements Drawable, Updatable {
     public void draw(RenderTarget arg0, RenderStates arg1) {
         if (!visible) return;
 
-        arg1 = new RenderStates(arg1, spriteSheet);
+        buildVertices().draw(arg0, new RenderStates(arg1, spriteSheet.getTexture()));
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates states) {
+        if (!visible) return;
+
+        batch.addVertices(buildVertices(), new RenderStates(states, spriteSheet.getTexture()));
+    }
+
+    /**
+     * Builds the bar and border for the current display value
+     * @return VertexArray of quads to draw with the spritesheet
+     */
+    private VertexArray buildVertices() {
         VertexArray va = new VertexArray(PrimitiveType.QUADS);
         
         int stage = 1;
@@ -272,7 +288,8 @@ public class ProgressBar implements Drawable, Updatable {
         va.addAll(bar);
 
         va.addAll(border);
-        va.draw(arg0, arg1);
+        spriteSheet.offsetTexCoords(va);
+        return va;
     }
 
 }
\ No newline at end of file
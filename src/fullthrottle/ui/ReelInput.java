@@ -8,17 +8,20 @@ import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.RenderTarget;
 import org.jsfml.graphics.Sprite;
 import org.jsfml.graphics.Text;
-import org.jsfml.graphics.Texture;
 import org.jsfml.system.Vector2f;
 import org.jsfml.system.Vector2i;
 
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.Batchable;
+import fullthrottle.gfx.Cacheable;
+import fullthrottle.gfx.SpriteBatch;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.gfx.TextureRegion;
 import fullthrottle.ui.Button.ActionType;
 
-public class ReelInput implements Drawable {
+public class ReelInput implements Drawable, Batchable, Cacheable {
 
-    public static class Reel implements Drawable {
-        public static Texture REEL_TEXTURE = new FTTexture(
+    public static class Reel implements Drawable, Batchable {
+        public static TextureRegion REEL_TEXTURE = TextureAtlas.getRegion(
             "./res/LetterReel.png"
         );
 
@@ -29,8 +32,14 @@ public class ReelInput implements Drawable {
 
         private Vector2f position, size;
 
+        private Sprite sprite;
         private Text letter;
 
+        /**
+         * Whether the letter has changed since the reel was last drawn
+         */
+        private volatile boolean changed;
+
         public Reel(
             Vector2f position, Vector2f size,
             int min, int max
@@ -40,6 +49,19 @@ public class ReelInput implements Drawable {
             this.position = position;
             this.size = size;
             currentValue = min;
+            changed = true;
+
+            sprite = REEL_TEXTURE.createSprite();
+            sprite.setPosition(position);
+            sprite.setScale(
+                Vector2f.componentwiseDiv(
+                    size,
+                    new Vector2f(
+                        sprite.getGlobalBounds().width,
+                        sprite.getGlobalBounds().height
+                    )
+                )
+            );
 
             Vector2f scale = Vector2f.componentwiseDiv(
                 size,
@@ -85,6 +107,7 @@ public class ReelInput implements Drawable {
                 currentValue = maxAscii;
 
             letter.setString((char)currentValue + "");
+            changed = true;
         }
 
         public void down() {
@@ -93,6 +116,7 @@ public class ReelInput implements Drawable {
                 currentValue = minAscii;
             
             letter.setString((char)currentValue + "");
+            changed = true;
         }
 
         public char getValue() {
@@ -101,19 +125,14 @@ public class ReelInput implements Drawable {
 
         @Override
         public void draw(RenderTarget arg0, RenderStates arg1) {
-            Sprite s = new Sprite(REEL_TEXTURE);
-            s.setPosition(position);
-            s.setScale(
-                Vector2f.componentwiseDiv(
-                    size,
-                    new Vector2f(
-                        s.getGlobalBounds().width,
-                        s.getGlobalBounds().height
-                    )
-                )
-            );
-            s.draw(arg0, arg1);
-            letter.draw(arg0, arg1);
+            SpriteBatch.drawNow(this, arg0, arg1);
+        }
+
+        @Override
+        public void batch(SpriteBatch batch, RenderStates arg1) {
+            batch.addSprite(sprite, arg1);
+            batch.draw(letter, arg1);
+            changed = false;
         }
     }
 
@@ -124,6 +143,7 @@ public class ReelInput implements Drawable {
     private Vector2f position, size;
 
     private boolean visible;
+    private boolean drawnVisible;
 
     public ReelInput(int length, Vector2f position, Vector2f size) {
         this.length = length;
@@ -163,9 +183,25 @@ public class ReelInput implements Drawable {
 
     @Override
     public void draw(RenderTarget arg0, RenderStates arg1) {
+        SpriteBatch.drawNow(this, arg0, arg1);
+    }
+
+    @Override
+    public void batch(SpriteBatch batch, RenderStates arg1) {
+        drawnVisible = visible;
         if (!visible) return;
         for (Reel r : reels)
-            r.draw(arg0, arg1);
+            r.batch(batch, arg1);
+    }
+
+    @Override
+    public boolean isDirty() {
+        if (visible != drawnVisible) return true;
+        if (!visible) return false;
+        for (Reel r : reels)
+            if (r.changed)
+                return true;
+        return false;
     }
 
     public void setVisible(boolean b) {
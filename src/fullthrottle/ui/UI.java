@@ -1,7 +1,9 @@
 package fullthrottle.ui;
 
-import fullthrottle.gfx.FTTexture;
+import fullthrottle.gfx.TextureAtlas;
+import fullthrottle.gfx.TextureRegion;
 import fullthrottle.gfx.FTFont;
+import fullthrottle.debug.Trace;
 
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
@@ -20,15 +22,15 @@ import org.jsfml.system.Vector2i;
 
 public final class UI {
     
-    public static Sprite DEFAULT_UI_SPRITE = new Sprite(
-        new FTTexture("./res/Button.png")
-    );
+    public static Sprite DEFAULT_UI_SPRITE = TextureAtlas.getRegion(
+        "./res/Button.png"
+    ).createSprite();
 
     public static Font DEFAULT_UI_FONT = new FTFont(
         "./res/ThaleahFat.ttf"
     );
 
-    public static Texture UPGRADE_MARKER_TEXTURE = new FTTexture(
+    public static TextureRegion UPGRADE_MARKER_TEXTURE = TextureAtlas.getRegion(
         "./res/shop/UpgradeMarkers.png"
     );
 
@@ -72,6 +74,21 @@ public final class UI {
      * @see UI#generateScaledImage(Image, Vector2i, SpriteFillMode)
      */
     public static Sprite generateFillSprite
+    (
+        Sprite source,
+        Vector2i size,
+        SpriteFillMode fillMode
+    ) {
+        long start = Trace.now();
+        Sprite sprite = createFillSprite(source, size, fillMode);
+        Trace.complete(
+            "Generate Fill Sprite", "asset", start,
+            fillMode + " " + size.x + "x" + size.y
+        );
+        return sprite;
+    }
+
+    private static Sprite createFillSprite
     (
         Sprite source,
         Vector2i size,
@@ -81,7 +98,13 @@ public final class UI {
         FloatRect oBounds = source.getLocalBounds();
         if (oBounds.width * oBounds.height == 0) return source;
         
-        Image image = source.getTexture().copyToImage();
+        //only the part of the texture the sprite shows, which
+        //could be one image in a texture atlas
+        Image texture = source.getTexture().copyToImage();
+        IntRect rect = source.getTextureRect();
+        Image image = new Image();
+        image.create(rect.width, rect.height);
+        image.copy(texture, 0, 0, rect);
 
         //An image at least as big as the button, ready to crop
         Image newImage = generateScaledImage(image, size, fillMode);
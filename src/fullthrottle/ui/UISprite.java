@@ -1,16 +1,38 @@
 package fullthrottle.ui;
 
 import org.jsfml.graphics.Color;
+import org.jsfml.graphics.ConstTexture;
+import org.jsfml.graphics.FloatRect;
+import org.jsfml.graphics.IntRect;
 import org.jsfml.graphics.RenderStates;
 import org.jsfml.graphics.RenderTarget;
 import org.jsfml.graphics.Sprite;
 import org.jsfml.graphics.Texture;
+import org.jsfml.system.Vector2f;
 
+import fullthrottle.gfx.Batchable;
+import fullthrottle.gfx.Bounded;
+import fullthrottle.gfx.Cacheable;
+import fullthrottle.gfx.SpriteBatch;
+import fullthrottle.gfx.TextureRegion;
 import fullthrottle.util.TimeManager;
 
-public class UISprite extends Sprite {
+public class UISprite extends Sprite implements Bounded, Batchable, Cacheable {
     private boolean visible;
 
+    /**
+     * Global bounds, only worked out again after the sprite
+     * has been moved, scaled, rotated or retextured
+     */
+    private FloatRect bounds;
+
+    /**
+     * Whether the sprite has been moved, scaled, rotated,
+     * recoloured or retextured since it was last drawn
+     */
+    private boolean changed;
+    private boolean drawnVisible;
+
     private float currentOpacity;
 
     private float fadeLength;
@@ -18,13 +40,88 @@ public class UISprite extends Sprite {
     private int fadeDirection;
 
     public UISprite(Texture t) {
-        super(t);
+        this(new TextureRegion(t));
+    }
+
+    public UISprite(TextureRegion r) {
+        super(r.getTexture(), r.getRect());
         visible = true;
+        changed = true;
         currentOpacity = 255;
 
         fadeDirection = 0;
     }
 
+    @Override
+    public FloatRect getBounds() {
+        if (bounds == null)
+            bounds = getGlobalBounds();
+        return bounds;
+    }
+
+    @Override
+    public void setPosition(Vector2f arg0) {
+        super.setPosition(arg0);
+        bounds = null;
+        changed = true;
+    }
+
+    @Override
+    public void setRotation(float arg0) {
+        super.setRotation(arg0);
+        bounds = null;
+        changed = true;
+    }
+
+    @Override
+    public void setScale(Vector2f arg0) {
+        super.setScale(arg0);
+        bounds = null;
+        changed = true;
+    }
+
+    @Override
+    public void setOrigin(Vector2f arg0) {
+        super.setOrigin(arg0);
+        bounds = null;
+        changed = true;
+    }
+
+    @Override
+    public void setTexture(ConstTexture arg0, boolean arg1) {
+        super.setTexture(arg0, arg1);
+        bounds = null;
+        changed = true;
+    }
+
+    @Override
+    public void setTextureRect(IntRect arg0) {
+        super.setTextureRect(arg0);
+        bounds = null;
+        changed = true;
+    }
+
+    @Override
+    public void setColor(Color arg0) {
+        super.setColor(arg0);
+        changed = true;
+    }
+
+    @Override
+    public boolean isDirty() {
+        if (visible != drawnVisible) return true;
+        return visible && (changed || fadeDirection != 0);
+    }
+
+    /**
+     * Record that the sprite has been drawn as it is now,
+     * for subclasses that draw without calling draw() or batch()
+     */
+    protected void markDrawn() {
+        drawnVisible = visible;
+        changed = false;
+    }
+
     public boolean isVisible() {
         return visible;
     }
@@ -51,10 +148,28 @@ public class UISprite extends Sprite {
 
     @Override
     public void draw(RenderTarget target, RenderStates rs) {
-        if (!visible) return;
+        if (visible) {
+            updateFade();
+            super.draw(target, rs);
+        }
+        markDrawn();
+    }
 
+    @Override
+    public void batch(SpriteBatch batch, RenderStates rs) {
+        if (visible) {
+            updateFade();
+            batch.addSprite(this, rs);
+        }
+        markDrawn();
+    }
+
+    /**
+     * Moves any fade on by a frame and applies the opacity
+     */
+    private void updateFade() {
         if (fadeDirection != 0) {
-            currentFadeLength += TimeManager.deltaTime();
+            currentFadeLength += TimeManager.ui().deltaTime();
             if (currentFadeLength >= fadeLength)
                 currentFadeLength = fadeLength;
 
@@ -72,7 +187,5 @@ public class UISprite extends Sprite {
         }
 
         super.setColor(new Color(super.getColor(), (int)currentOpacity));
-
-        super.draw(target, rs);
     }
 }
@@ -0,0 +1,105 @@
+package fullthrottle.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import org.jsfml.window.event.Event;
+
+/**
+ * Fixed size queue for passing window events from the thread
+ * polling the window to the thread running the simulation,
+ * each event is stored with the time it was captured
+ * The slots are allocated once, so adding and removing events
+ * allocates nothing (unlike e.g. ConcurrentLinkedQueue's nodes)
+ * Safe for one thread adding and one thread polling at a time
+ */
+public class EventQueue {
+    /**
+     * Number of events the queue can hold, must be a power of 2
+     */
+    public static final int CAPACITY = 256;
+    private static final int MASK = CAPACITY - 1;
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            HEAD = l.findVarHandle(EventQueue.class, "head", long.class);
+            TAIL = l.findVarHandle(EventQueue.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Event[] events;
+    private final long[] times;
+    /**
+     * Capture time of the event last returned by poll()
+     */
+    private long polledTime;
+    /**
+     * Next slot to poll from, only written by the polling thread
+     */
+    @SuppressWarnings("unused")
+    private long head;
+    /**
+     * Next slot to add to, only written by the adding thread
+     */
+    @SuppressWarnings("unused")
+    private long tail;
+
+    public EventQueue() {
+        events = new Event[CAPACITY];
+        times = new long[CAPACITY];
+    }
+
+    /**
+     * Add an event to the back of the queue
+     * @param e event to add
+     * @param time when the event was captured, from System.nanoTime()
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean add(Event e, long time) {
+        long t = (long)TAIL.getOpaque(this);
+        if (t - (long)HEAD.getAcquire(this) == CAPACITY)
+            return false;
+
+        events[(int)(t & MASK)] = e;
+        times[(int)(t & MASK)] = time;
+        //publish the slot only once the event is in it
+        TAIL.setRelease(this, t + 1);
+        return true;
+    }
+
+    /**
+     * Take the event at the front of the queue
+     * @return the event, or null if the queue is empty
+     */
+    public Event poll() {
+        long h = (long)HEAD.getOpaque(this);
+        if (h == (long)TAIL.getAcquire(this))
+            return null;
+
+        int i = (int)(h & MASK);
+        Event e = events[i];
+        events[i] = null;
+        polledTime = times[i];
+        HEAD.setRelease(this, h + 1);
+        return e;
+    }
+
+    /**
+     * @return capture time of the event last returned by poll()
+     */
+    public long getPolledTime() {
+        return polledTime;
+    }
+
+    /**
+     * Remove every event in the queue, only call from the polling thread
+     */
+    public void clear() {
+        while (poll() != null);
+    }
+}
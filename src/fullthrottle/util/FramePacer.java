@@ -0,0 +1,186 @@
+package fullthrottle.util;
+
+import org.jsfml.window.Window;
+
+/**
+ * Class to pace the main loop to a target framerate without
+ * keeping a core busy for the whole frame, also records how long
+ * each frame spent working and how long it spent waiting
+ * This is a static class and shouldn't be instantiated
+ */
+public final class FramePacer {
+
+    /**
+     * How the pacer waits for the next frame
+     */
+    public enum Mode {
+        /**
+         * No waiting at all, frames are produced as fast as possible
+         */
+        UNCAPPED,
+
+        /**
+         * Sleep for most of the remaining frame time and then
+         * spin for the last part to hit the target accurately
+         */
+        HYBRID,
+
+        /**
+         * Let the driver block in display() until the next
+         * vertical refresh, the target framerate is ignored
+         */
+        VSYNC
+    }
+
+    public static final int DEFAULT_TARGET_FRAMERATE = 60;
+
+    /**
+     * Time (in nanoseconds) before the deadline at which the pacer
+     * stops sleeping and starts spinning, sleep is only accurate
+     * to around a millisecond on most platforms
+     */
+    private static final long SPIN_THRESHOLD = 2_000_000L;
+
+    /**
+     * Longest (in nanoseconds) the pacer sleeps at a time when
+     * given something to do while waiting, e.g. polling events
+     */
+    private static final long POLL_INTERVAL = 1_000_000L;
+
+    private static Mode mode = Mode.HYBRID;
+    private static int targetFramerate = DEFAULT_TARGET_FRAMERATE;
+    private static long targetFrameTime = 1_000_000_000L / DEFAULT_TARGET_FRAMERATE;
+
+    private static long frameStart = System.nanoTime();
+    private static long displayWait = 0;
+
+    private static long workTime = 0;
+    private static long waitTime = 0;
+
+    private FramePacer() {
+
+    }
+
+    /**
+     * Sets up the window for the current mode, should be called
+     * again whenever the mode is changed
+     * @param window the window being paced
+     */
+    public static void apply(Window window) {
+        window.setFramerateLimit(0);
+        window.setVerticalSyncEnabled(mode == Mode.VSYNC);
+        frameStart = System.nanoTime();
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Change how the pacer waits between frames
+     * NB: apply(Window) needs to be called for VSync to take effect
+     * @param m new mode
+     */
+    public static void setMode(Mode m) {
+        mode = m;
+    }
+
+    public static int getTargetFramerate() {
+        return targetFramerate;
+    }
+
+    /**
+     * Set the framerate used by HYBRID mode
+     * @param fps target frames per second, must be &gt; 0
+     */
+    public static void setTargetFramerate(int fps) {
+        if (fps <= 0) throw new IllegalArgumentException(
+            "Invalid framerate " + fps + "; must be >0"
+        );
+        targetFramerate = fps;
+        targetFrameTime = 1_000_000_000L / fps;
+    }
+
+    /**
+     * Called at the start of each frame, blocks until the next
+     * frame is due (HYBRID) and records work and wait times
+     */
+    public static void waitForNextFrame() {
+        waitForNextFrame(null);
+    }
+
+    /**
+     * Called at the start of each frame, blocks until the next
+     * frame is due (HYBRID) and records work and wait times
+     * @param whileWaiting run about every POLL_INTERVAL while
+     * sleeping, e.g. to poll events so they get accurate
+     * timestamps, can be null
+     */
+    public static void waitForNextFrame(Runnable whileWaiting) {
+        long now = System.nanoTime();
+        workTime = now - frameStart - displayWait;
+
+        if (mode == Mode.HYBRID) {
+            long deadline = frameStart + targetFrameTime;
+
+            long remaining = deadline - now;
+            while (remaining > SPIN_THRESHOLD) {
+                try {
+                    long sleepTime = remaining - SPIN_THRESHOLD;
+                    if (whileWaiting != null)
+                        sleepTime = Math.min(sleepTime, POLL_INTERVAL);
+                    Thread.sleep(
+                        sleepTime / 1_000_000L,
+                        (int)(sleepTime % 1_000_000L)
+                    );
+                    if (whileWaiting != null)
+                        whileWaiting.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            while (System.nanoTime() < deadline)
+                Thread.onSpinWait();
+
+            long end = System.nanoTime();
+            waitTime = end - now + displayWait;
+            //keep a steady cadence unless a whole frame was missed
+            frameStart = (end - deadline < targetFrameTime) ? deadline : end;
+        } else {
+            waitTime = displayWait;
+            frameStart = now;
+        }
+
+        displayWait = 0;
+    }
+
+    /**
+     * Displays the window, in VSYNC mode the time spent blocked
+     * in display() is counted as waiting rather than working
+     * @param window the window to display
+     */
+    public static void display(Window window) {
+        long start = System.nanoTime();
+        window.display();
+        if (mode == Mode.VSYNC)
+            displayWait = System.nanoTime() - start;
+    }
+
+    /**
+     * Get the time the last frame spent doing work
+     * @return float value of time in seconds
+     */
+    public static float getWorkTime() {
+        return workTime / 1e9f;
+    }
+
+    /**
+     * Get the time the last frame spent waiting
+     * @return float value of time in seconds
+     */
+    public static float getWaitTime() {
+        return waitTime / 1e9f;
+    }
+}
@@ -0,0 +1,30 @@
+package fullthrottle.util;
+
+/**
+ * Global switch for running the game without a window, textures
+ * or audio, e.g. for simulations on a machine with no display
+ * This is a static class and shouldn't be instantiated
+ */
+public final class Headless {
+    private static boolean enabled = false;
+
+    private Headless() {
+
+    }
+
+    /**
+     * Turns headless mode on, must be called before any
+     * textures are loaded (i.e. before any game classes are used)
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Check whether the game is running headless
+     * @return true if there is no window or graphics context
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+}
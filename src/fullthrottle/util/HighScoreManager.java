@@ -12,6 +12,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import fullthrottle.debug.Trace;
+
 public class HighScoreManager {
 
     public static void main(String[] args) {
@@ -43,6 +45,13 @@ public class HighScoreManager {
     }
 
     public static List<HighScore> getHighScores(int limit) {
+        long start = Trace.now();
+        List<HighScore> scores = readHighScores(limit);
+        Trace.complete("Read High Scores", "io", start);
+        return scores;
+    }
+
+    private static List<HighScore> readHighScores(int limit) {
         List<HighScore> scores = new ArrayList<>();
 
         BufferedReader reader;
@@ -90,6 +99,7 @@ public class HighScoreManager {
     }
 
     public static void addHighScore(String name, int score) {
+        long start = Trace.now();
         try{
             Files.writeString(
                 Paths.get("./.highscores"),
@@ -99,5 +109,6 @@ public class HighScoreManager {
         } catch (IOException e) {
             e.printStackTrace();
         }
+        Trace.complete("Write High Score", "io", start);
     }
 }
@@ -1,6 +1,6 @@
 package fullthrottle.util;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 
 import org.jsfml.window.Keyboard.Key;
 import org.jsfml.window.Mouse.Button;
@@ -11,17 +11,23 @@ import org.jsfml.window.event.MouseButtonEvent;
 /**
  * This is a class to store currently held keys, as well as
  * keys that have been pressed or released during the current frame
+ * A press is also latched until the end of the next simulation
+ * step, so a tap released before any step ran is still seen
+ * Keys and buttons are stored in EnumSets (bitsets) so checking
+ * or changing one is constant time and allocates nothing
  * This is a static class and shouldn't be instantiated
  */
 public final class Input {
 
-    private static ArrayList<Key> keysHeld = new ArrayList<>();
-    private static ArrayList<Key> keysPressed = new ArrayList<>();
-    private static ArrayList<Key> keysReleased = new ArrayList<>();
+    private static final EnumSet<Key> keysHeld = EnumSet.noneOf(Key.class);
+    private static final EnumSet<Key> keysPressed = EnumSet.noneOf(Key.class);
+    private static final EnumSet<Key> keysReleased = EnumSet.noneOf(Key.class);
+    private static final EnumSet<Key> keysLatched = EnumSet.noneOf(Key.class);
 
-    private static ArrayList<Button> buttonsHeld = new ArrayList<>();
-    private static ArrayList<Button> buttonsPressed = new ArrayList<>();
-    private static ArrayList<Button> buttonsReleased = new ArrayList<>();
+    private static final EnumSet<Button> buttonsHeld = EnumSet.noneOf(Button.class);
+    private static final EnumSet<Button> buttonsPressed = EnumSet.noneOf(Button.class);
+    private static final EnumSet<Button> buttonsReleased = EnumSet.noneOf(Button.class);
+    private static final EnumSet<Button> buttonsLatched = EnumSet.noneOf(Button.class);
 
     private Input() {
 
@@ -39,9 +45,18 @@ public final class Input {
         buttonsReleased.clear();
     }
 
+    /**
+     * Should be called at the end of every simulation step,
+     * releases presses latched since the last step
+     */
+    public static void clearStepFlags() {
+        keysLatched.clear();
+        buttonsLatched.clear();
+    }
+
     /**
      * Debug method to generate string of pressed keys
-     * @return String of keys in the order they were pressed
+     * @return String of held keys
      */
     private static String currentKeys() {
         String keys = "";
@@ -70,9 +85,13 @@ public final class Input {
         KeyEvent event = e.asKeyEvent();
         if (event == null) return;
 
+        //only count the edge, a press for a key that's already
+        //held (e.g. OS key repeat) isn't a new press
         if (event.type == Event.Type.KEY_PRESSED) {
-            keysHeld.add(event.key);
-            keysPressed.add(event.key);
+            if (keysHeld.add(event.key)) {
+                keysPressed.add(event.key);
+                keysLatched.add(event.key);
+            }
         } else if (event.type == Event.Type.KEY_RELEASED) {
             keysHeld.remove(event.key);
             keysReleased.add(event.key);
@@ -82,12 +101,13 @@ public final class Input {
     }
 
     /**
-     * Check whether a specified key is currently held
+     * Check whether a specified key is currently held, or was
+     * pressed since the last simulation step finished
      * @param key the key to check
      * @return true if held, false otherwise
      */
     public static boolean getKey(Key key) {
-        return keysHeld.contains(key);
+        return keysHeld.contains(key) || keysLatched.contains(key);
     }
 
     /**
@@ -124,8 +144,10 @@ public final class Input {
         if (event == null) return;
 
         if (event.type == Event.Type.MOUSE_BUTTON_PRESSED) {
-            buttonsHeld.add(event.button);
-            buttonsPressed.add(event.button);
+            if (buttonsHeld.add(event.button)) {
+                buttonsPressed.add(event.button);
+                buttonsLatched.add(event.button);
+            }
         } else if (event.type == Event.Type.MOUSE_BUTTON_RELEASED) {
             buttonsHeld.remove(event.button);
             buttonsReleased.add(event.button);
@@ -135,12 +157,13 @@ public final class Input {
     }
 
     /**
-     * Check whether a specified button is currently held
+     * Check whether a specified button is currently held, or was
+     * pressed since the last simulation step finished
      * @param button the button to check
      * @return true if held, false otherwise
      */
     public static boolean getMouseButton(Button button) {
-        return buttonsHeld.contains(button);
+        return buttonsHeld.contains(button) || buttonsLatched.contains(button);
     }
 
     /**
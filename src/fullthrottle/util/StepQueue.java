@@ -0,0 +1,106 @@
+package fullthrottle.util;
+
+import java.util.Arrays;
+
+/**
+ * Holds the events (or commands) taken in during one frame, each
+ * tagged with the simulation step it should be handled before, so
+ * input is applied at the step it happened in rather than all at
+ * the start of the frame. Items must be added in step order
+ * Storage is reused between frames and only grows when a frame
+ * has more items than any before it
+ * @param <T> type of item held
+ */
+public class StepQueue<T> {
+    /**
+     * Receives items as they are handed out
+     * @param <T> type of item held
+     */
+    public interface Handler<T> {
+        public void handle(T item, int step);
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Object[] items;
+    private long[] times;
+    private int[] steps;
+    private int size;
+    /**
+     * Index of the next item to hand out
+     */
+    private int next;
+
+    public StepQueue() {
+        items = new Object[INITIAL_CAPACITY];
+        times = new long[INITIAL_CAPACITY];
+        steps = new int[INITIAL_CAPACITY];
+        size = 0;
+        next = 0;
+    }
+
+    /**
+     * Add an item to the back of the queue
+     * @param item the item
+     * @param time when the item was captured (System.nanoTime()),
+     * 0 if unknown e.g. for replayed input
+     * @param step simulation step the item should be handled before
+     */
+    public void add(T item, long time, int step) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+            times = Arrays.copyOf(times, size * 2);
+            steps = Arrays.copyOf(steps, size * 2);
+        }
+
+        items[size] = item;
+        times[size] = time;
+        steps[size] = step;
+        size++;
+    }
+
+    /**
+     * Hand out every item due before or at a step, in the order added
+     * @param step the step about to run
+     * @param handler receives each item
+     */
+    @SuppressWarnings("unchecked")
+    public void handleUntil(int step, Handler<T> handler) {
+        while (next < size && steps[next] <= step) {
+            int i = next++;
+            handler.handle((T)items[i], steps[i]);
+        }
+    }
+
+    /**
+     * Hand out every item not yet handed out, in the order added
+     * @param handler receives each item
+     */
+    public void handleRemaining(Handler<T> handler) {
+        handleUntil(Integer.MAX_VALUE, handler);
+    }
+
+    /**
+     * @return capture time of the oldest item with a known
+     * capture time, or 0 if there isn't one
+     */
+    public long getOldestTime() {
+        for (int i = 0; i < size; i++)
+            if (times[i] != 0)
+                return times[i];
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empty the queue ready for the next frame
+     */
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        next = 0;
+    }
+}
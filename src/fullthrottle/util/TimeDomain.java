@@ -0,0 +1,102 @@
+package fullthrottle.util;
+
+/**
+ * A clock that systems take their delta time from, each domain can
+ * be scaled or paused without affecting the others
+ * Domains are advanced by TimeManager.update() so reading
+ * them never touches the system clock
+ */
+public final class TimeDomain {
+    private final String name;
+
+    private volatile float scale = 1;
+    private volatile boolean paused = false;
+
+    private volatile float deltaTime = 0;
+    private volatile double elapsedTime = 0;
+    /**
+     * Set by TimeManager for the length of each simulation step
+     */
+    private volatile boolean stepping = false;
+
+    TimeDomain(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Move this domain forward, called once per frame by TimeManager
+     * @param realDelta unscaled time since the last frame in seconds
+     */
+    void advance(float realDelta) {
+        deltaTime = paused ? 0 : realDelta * scale;
+        elapsedTime += deltaTime;
+    }
+
+    /**
+     * Switch deltaTime() between the frame's delta and the length
+     * of a simulation step, called by TimeManager around each step
+     * @param b true while a step is running
+     */
+    void setStepping(boolean b) {
+        stepping = b;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get time elapsed in this domain since last frame, or the
+     * scaled length of a simulation step if called during one
+     * @return float value of time in seconds, 0 when paused
+     */
+    public float deltaTime() {
+        if (stepping)
+            return paused ? 0 : TimeManager.FIXED_TIMESTEP * scale;
+        return deltaTime;
+    }
+
+    /**
+     * Get time elapsed in this domain since last frame, or the
+     * scaled length of a simulation step if called during one
+     * @return long value of time in milliseconds, 0 when paused
+     */
+    public long deltaTimeAsMilliseconds() {
+        return (long)(deltaTime() * 1000);
+    }
+
+    /**
+     * Total time this domain has advanced
+     * @return float value of time in seconds
+     */
+    public float elapsedTime() {
+        return (float)elapsedTime;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Set how fast this domain runs compared to real time
+     * @param scale 1 = real time, 0.5 = half speed etc, must be &gt;= 0
+     */
+    public void setScale(float scale) {
+        if (scale < 0) throw new IllegalArgumentException(
+            "Invalid time scale " + scale + "; must be >=0"
+        );
+        this.scale = scale;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void pause() {
+        this.paused = true;
+    }
+
+    public void resume() {
+        this.paused = false;
+    }
+}
@@ -1,57 +1,207 @@
 package fullthrottle.util;
 
-import org.jsfml.system.Clock;
-import org.jsfml.system.Time;
-
 /**
  * Class to help with timings, specifically time between frames
+ * Time is read from System.nanoTime() once per frame and fed to
+ * each TimeDomain, systems should take their delta from the domain
+ * they belong to (e.g. TimeManager.game().deltaTime())
+ * This is a static class and shouldn't be instantiated
  */
 public final class TimeManager {
-    private static Clock clock = new Clock();
-    private static Time deltaTime;
-    private static int frameCount = 0;
+    /**
+     * Length in seconds of one simulation step
+     */
+    public static final float FIXED_TIMESTEP = 1 / 120f;
+    /**
+     * Most simulation steps run in a single frame, any time beyond
+     * this is dropped so a long hitch can't cause a spiral of death
+     */
+    public static final int MAX_FIXED_STEPS = 8;
+
+    /**
+     * Longest frame (in seconds) fed to the time domains, stops
+     * everything jumping forward after e.g. dragging the window
+     */
+    public static final float MAX_DELTA_TIME = 0.25f;
+
+    private static final TimeDomain real = new TimeDomain("Real");
+    private static final TimeDomain game = new TimeDomain("Game");
+    private static final TimeDomain ui = new TimeDomain("UI");
+
+    private static final long startTime = System.nanoTime();
+    private static long lastFrame = startTime;
+    private static volatile int frameCount = 0;
+
+    private static float accumulator = 0;
+    private static volatile boolean inFixedStep = false;
+
+    private TimeManager() {
+
+    }
+
+    /**
+     * Time that passes regardless of pausing or scaling,
+     * NB: the real domain should never be paused or scaled
+     * @return the real time domain
+     */
+    public static TimeDomain real() {
+        return real;
+    }
+
+    /**
+     * Time the gameplay runs on, paused when the game is paused
+     * @return the game time domain
+     */
+    public static TimeDomain game() {
+        return game;
+    }
+
+    /**
+     * Time menus, buttons and other UI animations run on
+     * @return the UI time domain
+     */
+    public static TimeDomain ui() {
+        return ui;
+    }
 
     /**
-     * Should be called with each frame, updates the deltaTime
+     * Should be called with each frame, advances every time domain
      */
     public static void update() {
-        deltaTime = clock.restart();
+        long now = System.nanoTime();
+        update((now - lastFrame) / 1e9f);
+    }
+
+    /**
+     * Used in place of update() to advance every time domain by
+     * a given amount instead of the time since the last frame,
+     * e.g. when playing back a replay
+     * @param frameTime length of the frame in seconds
+     */
+    public static void update(float frameTime) {
+        float delta = Math.min(frameTime, MAX_DELTA_TIME);
+        lastFrame = System.nanoTime();
+
+        real.advance(delta);
+        game.advance(delta);
+        ui.advance(delta);
         frameCount++;
     }
 
     /**
-     * Number of frames since the clock started
-     * @return
+     * Adds the last frame's time to the simulation accumulator and
+     * works out how many fixed steps need to run to catch up
+     * Should be called once per frame after update()
+     * @return number of simulation steps to run this frame
      */
-    public static int frameCount() {
-        return frameCount;
+    public static int fixedSteps() {
+        accumulator += real.deltaTime();
+
+        int steps = (int)(accumulator / FIXED_TIMESTEP);
+        if (steps > MAX_FIXED_STEPS) {
+            steps = MAX_FIXED_STEPS;
+            accumulator = steps * FIXED_TIMESTEP;
+        }
+        accumulator -= steps * FIXED_TIMESTEP;
+
+        return steps;
     }
 
-    public static float elapsedTime() {
-        return clock.getElapsedTime().asSeconds();
+    /**
+     * Throw away any time left over from previous frames so the
+     * next fixedSteps() starts from a whole step, used so a replay
+     * steps on exactly the same frames it was recorded on
+     */
+    public static void resetFixedSteps() {
+        accumulator = 0;
     }
 
     /**
-     * Get time elapsed since last frame
-     * @return float value of time in seconds since last frame
+     * Called before each simulation step, every domain's deltaTime()
+     * returns its scaled FIXED_TIMESTEP until endFixedStep() is called
      */
-    public static float deltaTime() {
-        return deltaTime.asSeconds();
+    public static void beginFixedStep() {
+        inFixedStep = true;
+        real.setStepping(true);
+        game.setStepping(true);
+        ui.setStepping(true);
     }
 
     /**
-     * Get time elapsed since last frame
-     * @return long value of time in milliseconds since last frame
+     * Called after each simulation step, deltaTime() goes back
+     * to returning the time since the last frame
      */
-    public static long deltaTimeAsMilliseconds() {
-        return deltaTime.asMilliseconds();
+    public static void endFixedStep() {
+        inFixedStep = false;
+        real.setStepping(false);
+        game.setStepping(false);
+        ui.setStepping(false);
     }
 
     /**
-     * Get time elapsed since last frame
-     * @return Time object representing time since last frame
+     * Whether a simulation step is running
+     * @return true if between beginFixedStep() and endFixedStep()
      */
-    public static Time deltaTimeRaw() {
-        return deltaTime;
+    public static boolean inFixedStep() {
+        return inFixedStep;
+    }
+
+    /**
+     * How far between the previous and current simulation
+     * state the current frame is, used to interpolate when drawing
+     * @return value from 0 (previous state) to 1 (current state)
+     */
+    public static float interpolationAlpha() {
+        return accumulator / FIXED_TIMESTEP;
+    }
+
+    /**
+     * Linearly interpolate between a previous and current value
+     * using the current interpolationAlpha()
+     * @param previous value at the previous simulation step
+     * @param current value at the current simulation step
+     * @return interpolated value for drawing
+     */
+    public static float interpolate(float previous, float current) {
+        return previous + (current - previous) * interpolationAlpha();
+    }
+
+    /**
+     * Work out which of this frame's simulation steps something that
+     * happened at a given time should be handled before, the steps
+     * are taken to cover the real time leading up to the frame
+     * Should be called after fixedSteps()
+     * @param nanos when it happened, from System.nanoTime()
+     * @param steps number of steps running this frame
+     * @return index of the step (0 to steps - 1), 0 if there are none
+     */
+    public static int stepForTime(long nanos, int steps) {
+        if (steps <= 1) return 0;
+
+        long stepNanos = (long)(FIXED_TIMESTEP * 1e9);
+        long leftover = (long)(accumulator * 1e9);
+        //real time at which the first step's simulated time ends
+        long firstEnd = lastFrame - leftover - (steps - 1) * stepNanos;
+        if (nanos <= firstEnd) return 0;
+
+        int step = (int)((nanos - firstEnd + stepNanos - 1) / stepNanos);
+        return Math.min(step, steps - 1);
+    }
+
+    /**
+     * Number of frames since the clock started
+     * @return
+     */
+    public static int frameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Real time since the game started
+     * NB: reads the system clock, unlike the time domains
+     * @return float value of time in seconds
+     */
+    public static float elapsedTime() {
+        return (System.nanoTime() - startTime) / 1e9f;
     }
 }